@@ -0,0 +1,50 @@
+package io.github.sleroy.sonar;
+
+import org.sonar.api.utils.command.StreamConsumer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps the last lines written by a process, up to a number of characters, for diagnostics. Unlike
+ * {@link org.sonar.api.utils.command.StringStreamConsumer} its memory is bounded whatever the process prints.
+ */
+public class BoundedStreamConsumer implements StreamConsumer {
+    private final int maxChars;
+    private final Deque<String> lines = new ArrayDeque<>();
+    private int chars;
+    private boolean truncated;
+
+    /**
+     * @param maxChars the number of characters to keep
+     */
+    public BoundedStreamConsumer(int maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    @Override
+    public synchronized void consumeLine(String line) {
+        String kept = line.length() > this.maxChars ? line.substring(line.length() - this.maxChars) : line;
+        this.truncated |= kept.length() < line.length();
+        this.lines.addLast(kept);
+        this.chars += kept.length();
+        while (this.chars > this.maxChars) {
+            this.chars -= this.lines.removeFirst().length();
+            this.truncated = true;
+        }
+    }
+
+    /**
+     * Returns the last lines, prefixed by an ellipsis when older output has been discarded.
+     */
+    public synchronized String getTail() {
+        StringBuilder tail = new StringBuilder(this.chars + this.lines.size() + 4);
+        if (this.truncated) {
+            tail.append("...").append(System.lineSeparator());
+        }
+        for (String line : this.lines) {
+            tail.append(line).append(System.lineSeparator());
+        }
+        return tail.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.UnaryOperator;
+
+/**
+ * Splits the files to lint into batches of similar cost, so that concurrent batches complete at about the same
+ * time. Files are weighed by a {@link CostModel} and bin-packed, heaviest first, into the lightest batch whose
+ * command line still has room for them.
+ */
+public class EsLintBatchPlanner {
+    // Size of a file that costs as much to lint as EsLint's fixed per-file overhead
+    public static final long REFERENCE_FILE_SIZE = 16 * 1024L;
+
+    /**
+     * Estimates how expensive a file is to lint, in units of a small file.
+     */
+    @FunctionalInterface
+    public interface CostModel {
+        double weigh(String path);
+    }
+
+    /**
+     * A batch of files, with the arguments to pass to EsLint.
+     */
+    public static final class Batch {
+        private final List<String> paths = new ArrayList<>();
+        private final List<String> arguments = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+        private double cost;
+        private int length;
+
+        private void add(String path, String argument, double weight) {
+            this.paths.add(path);
+            this.arguments.add(argument);
+            this.weights.add(weight);
+            this.cost += weight;
+            // +1 for the space we'll be adding between filenames
+            this.length += argument.length() + 1;
+        }
+
+        public List<String> getPaths() {
+            return this.paths;
+        }
+
+        public List<String> getArguments() {
+            return this.arguments;
+        }
+
+        /**
+         * Returns the cost of the batch, in units of a small file.
+         */
+        public double getCost() {
+            return this.cost;
+        }
+
+        /**
+         * Splits the batch in two halves of the same number of files.
+         *
+         * @return the halves, the batch itself if it has a single file
+         */
+        public List<Batch> split() {
+            int half = this.paths.size() / 2;
+            if (half == 0) {
+                return Collections.singletonList(this);
+            }
+            Batch first = new Batch();
+            Batch second = new Batch();
+            for (int i = 0, n = this.paths.size(); i < n; i++) {
+                (i < half ? first : second).add(this.paths.get(i), this.arguments.get(i), this.weights.get(i));
+            }
+            return Arrays.asList(first, second);
+        }
+    }
+
+    private final CostModel costModel;
+
+    public EsLintBatchPlanner(CostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    /**
+     * Weighs files by their size: a file costs one unit, plus one unit per {@link #REFERENCE_FILE_SIZE} bytes.
+     */
+    public static CostModel bySize() {
+        return path -> 1 + (double) new File(path).length() / REFERENCE_FILE_SIZE;
+    }
+
+    /**
+     * Plans the batches.
+     *
+     * @param files          the paths of the files to lint
+     * @param toArgument     turns a path into an EsLint argument, quoting it if needed
+     * @param maxLength      the room left for the files on the command line
+     * @param minimumBatches the number of batches to spread the files over, more being created when the command
+     *                       line is too short
+     * @return the non-empty batches, most expensive first, or a single empty batch if there are no files
+     */
+    public List<Batch> plan(List<String> files, UnaryOperator<String> toArgument, int maxLength, int minimumBatches) {
+        List<WeighedFile> weighed = new ArrayList<>(files.size());
+        for (String file : files) {
+            String path = file.trim();
+            weighed.add(new WeighedFile(path, toArgument.apply(path), this.costModel.weigh(path)));
+        }
+        // Heaviest first, the sort being stable files of equal weight keep their order
+        weighed.sort(Comparator.comparingDouble((WeighedFile f) -> f.weight).reversed());
+
+        List<Batch> batches = new ArrayList<>();
+        PriorityQueue<Batch> lightestFirst = new PriorityQueue<>(Comparator.comparingDouble((Batch b) -> b.cost));
+        for (int i = 0, n = Math.max(1, minimumBatches); i < n; i++) {
+            Batch batch = new Batch();
+            batches.add(batch);
+            lightestFirst.add(batch);
+        }
+
+        List<Batch> full = new ArrayList<>();
+        for (WeighedFile file : weighed) {
+            // +1 for the space we'll be adding between filenames
+            int length = file.argument.length() + 1;
+
+            Batch target = null;
+            while (!lightestFirst.isEmpty()) {
+                Batch candidate = lightestFirst.poll();
+                if (candidate.length == 0 || candidate.length + length <= maxLength) {
+                    target = candidate;
+                    break;
+                }
+                full.add(candidate);
+            }
+            if (target == null) {
+                // Too long to add to any batch, create new
+                target = new Batch();
+                batches.add(target);
+            }
+
+            target.add(file.path, file.argument, file.weight);
+            lightestFirst.add(target);
+            lightestFirst.addAll(full);
+            full.clear();
+        }
+
+        batches.removeIf(batch -> batch.arguments.isEmpty());
+        if (batches.isEmpty()) {
+            batches.add(new Batch());
+        }
+        // Started first, the most expensive batches do not end up running alone at the end of the analysis
+        batches.sort(Comparator.comparingDouble(Batch::getCost).reversed());
+        return batches;
+    }
+
+    /**
+     * Splits files into consecutive batches, in the given order, starting a new batch only when the command line
+     * is full, so that the same files always end up in the same batches.
+     *
+     * @param files      the paths of the files to lint
+     * @param toArgument turns a path into an EsLint argument, quoting it if needed
+     * @param maxLength  the room left for the files on the command line
+     * @return the non-empty batches, or a single empty batch if there are no files
+     */
+    public List<Batch> chunk(List<String> files, UnaryOperator<String> toArgument, int maxLength) {
+        List<Batch> batches = new ArrayList<>();
+        Batch current = new Batch();
+        batches.add(current);
+        for (String file : files) {
+            String path = file.trim();
+            String argument = toArgument.apply(path);
+            // +1 for the space we'll be adding between filenames
+            if (current.length > 0 && current.length + argument.length() + 1 > maxLength) {
+                current = new Batch();
+                batches.add(current);
+            }
+            current.add(path, argument, this.costModel.weigh(path));
+        }
+        return batches;
+    }
+
+    private static final class WeighedFile {
+        private final String path;
+        private final String argument;
+        private final double weight;
+
+        WeighedFile(String path, String argument, double weight) {
+            this.path = path;
+            this.argument = argument;
+            this.weight = weight;
+        }
+    }
+}
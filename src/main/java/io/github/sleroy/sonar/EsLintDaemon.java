@@ -0,0 +1,194 @@
+package io.github.sleroy.sonar;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A long-lived Node process running the bundled eslint-daemon.js script. File paths are streamed to it
+ * over stdin and the JSON reports are read back from stdout, one request at a time.
+ */
+public class EsLintDaemon implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintDaemon.class);
+
+    private final Process process;
+    private final BufferedWriter requests;
+    private final BufferedReader responses;
+    private final ExecutorService ioThreads;
+
+    private int nextRequestId = 1;
+    private long lastHeapUsed;
+    private Map<String, Long> lastTimings = Collections.emptyMap();
+
+    EsLintDaemon(Process process) {
+        this.process = process;
+        this.requests = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        this.responses = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        this.ioThreads = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "eslint-daemon-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Drain stderr so that a chatty plugin never blocks the worker
+        this.ioThreads.submit(() -> {
+            try (BufferedReader errors = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                //noinspection NestedAssignment
+                while ((line = errors.readLine()) != null) {
+                    LOG.debug("[eslint-daemon] {}", line);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Starts a new daemon.
+     *
+     * @param command the command line starting Node on the daemon script
+     * @return the running daemon
+     * @throws IOException if the process cannot be started
+     */
+    public static EsLintDaemon start(List<String> command) throws IOException {
+        LOG.debug("Starting EsLint daemon with command: {}", command);
+        return new EsLintDaemon(new ProcessBuilder(command).start());
+    }
+
+    /**
+     * Lints a set of files.
+     *
+     * @param files     the absolute paths of the files to lint
+     * @param timeoutMs the maximum time to wait for the report
+     * @return the JSON report, as produced by the ESLint json formatter
+     * @throws IOException      if the daemon died or reported an error
+     * @throws TimeoutException if the daemon did not answer in time
+     */
+    public String lint(List<String> files, long timeoutMs) throws IOException, TimeoutException {
+        int requestId = this.nextRequestId++;
+
+        JsonArray paths = new JsonArray();
+        files.forEach(paths::add);
+        JsonObject request = new JsonObject();
+        request.addProperty("id", requestId);
+        request.add("files", paths);
+
+        this.requests.write(request.toString());
+        this.requests.newLine();
+        this.requests.flush();
+
+        Future<String> response = this.ioThreads.submit(() -> this.readResponse(requestId));
+        try {
+            return response.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the EsLint daemon", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("EsLint daemon failed", e.getCause());
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw e;
+        }
+    }
+
+    private String readResponse(int requestId) throws IOException {
+        String header = this.responses.readLine();
+        if (header == null) {
+            throw new IOException("EsLint daemon exited unexpectedly");
+        }
+
+        JsonObject headerObject = new JsonParser().parse(header).getAsJsonObject();
+        JsonElement error = headerObject.get("error");
+        if (error != null) {
+            throw new IOException("EsLint daemon failed to lint files: " + error.getAsString());
+        }
+        if (headerObject.get("id").getAsInt() != requestId) {
+            throw new IOException("EsLint daemon answered request " + headerObject.get("id") + " instead of " + requestId);
+        }
+        JsonElement heapUsed = headerObject.get("heapUsed");
+        if (heapUsed != null) {
+            this.lastHeapUsed = heapUsed.getAsLong();
+        }
+        Map<String, Long> timings = new HashMap<>();
+        JsonElement timingsElement = headerObject.get("timings");
+        if (timingsElement != null && timingsElement.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> timing : timingsElement.getAsJsonObject().entrySet()) {
+                timings.put(timing.getKey(), timing.getValue().getAsLong());
+            }
+        }
+        this.lastTimings = timings;
+
+        String report = this.responses.readLine();
+        if (report == null) {
+            throw new IOException("EsLint daemon exited before sending its report");
+        }
+        return report;
+    }
+
+    /**
+     * Returns the V8 heap used by the daemon after its last request.
+     *
+     * @return the heap size in bytes, 0 if unknown
+     */
+    public long getLastHeapUsed() {
+        return this.lastHeapUsed;
+    }
+
+    /**
+     * Returns the lint time of every file of the last request.
+     *
+     * @return the times in milliseconds by file path, empty if unknown
+     */
+    public Map<String, Long> getLastTimings() {
+        return this.lastTimings;
+    }
+
+    public boolean isAlive() {
+        return this.process.isAlive();
+    }
+
+    /**
+     * Stops the daemon: closing stdin lets it exit gracefully once pending requests are done,
+     * otherwise it is killed.
+     */
+    @Override
+    public void close() {
+        try {
+            this.requests.close();
+            if (!this.process.waitFor(5, TimeUnit.SECONDS)) {
+                LOG.debug("EsLint daemon did not stop in time, killing it");
+            }
+        } catch (IOException e) {
+            LOG.debug("Failed to close EsLint daemon input", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.process.destroyForcibly();
+            this.ioThreads.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.sleroy.sonar;
+
+/**
+ * Raised when the EsLint daemon cannot be used at all, so that the analysis can fall back to running
+ * one EsLint process per batch.
+ */
+public class EsLintDaemonException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public EsLintDaemonException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
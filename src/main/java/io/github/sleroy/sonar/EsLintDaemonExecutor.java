@@ -0,0 +1,179 @@
+package io.github.sleroy.sonar;
+
+import io.github.sleroy.sonar.api.EsLintExecutor;
+import io.github.sleroy.sonar.api.EsLintReportHandler;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.TempFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Lints the files through long-lived Node processes, so that Node startup, plugin loading and
+ * configuration resolution are paid once per worker rather than once per batch.
+ */
+public class EsLintDaemonExecutor implements EsLintExecutor {
+    public static final int DAEMON_BATCH_SIZE = 100;
+    @SuppressWarnings("HardcodedFileSeparator")
+    public static final String DAEMON_SCRIPT_RESOURCE_PATH = "/eslint/eslint-daemon.js";
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintDaemonExecutor.class);
+    private final TempFolder tempFolder;
+
+    public EsLintDaemonExecutor(TempFolder tempFolder) {
+        this.tempFolder = tempFolder;
+    }
+
+    /**
+     * Extracts the daemon script from the plugin jar so that Node can run it.
+     *
+     * @param tempFolder the folder receiving the script
+     * @return the extracted script
+     * @throws IOException if the script cannot be extracted
+     */
+    static File extractDaemonScript(TempFolder tempFolder) throws IOException {
+        File script = tempFolder.newFile("eslint-daemon", ".js");
+        try (InputStream resource = EsLintDaemonExecutor.class.getResourceAsStream(DAEMON_SCRIPT_RESOURCE_PATH)) {
+            FileUtils.copyInputStreamToFile(resource, script);
+        }
+        return script;
+    }
+
+    /**
+     * Builds the command line starting the daemon.
+     */
+    static List<String> getDaemonCommand(EsLintExecutorConfig config, File script, SensorContext ctx) {
+        List<String> command = new ArrayList<>();
+        command.add(config.getNodePath());
+        command.addAll(config.getNodeArguments());
+        command.add(script.getAbsolutePath());
+        command.add("--eslint");
+        command.add(config.getPathToEsLint());
+        command.add("--config");
+        command.add(config.getConfigFile());
+
+        String rulesDir = config.getRulesDir();
+        if (rulesDir != null && !rulesDir.isEmpty()) {
+            command.add("--rules-dir");
+            command.add(rulesDir);
+        }
+
+        if (ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_ENABLE_NO_INLINE_CFG).orElse(Boolean.FALSE)) {
+            command.add("--no-inline-config");
+        }
+        return command;
+    }
+
+    protected EsLintDaemon startDaemon(List<String> command) throws IOException {
+        return EsLintDaemon.start(command);
+    }
+
+    /**
+     * Lints the files through the daemon, or through a pool of daemons in pool mode.
+     *
+     * @throws EsLintDaemonException if the daemons could not be started or could not lint anything, in which
+     *                               case the analysis may fall back to running one EsLint process per batch
+     */
+    @Override
+    public List<String> execute(EsLintExecutorConfig config, List<String> files, SensorContext ctx) {
+        List<String> toReturn = new ArrayList<>(files == null ? 0 : files.size() / DAEMON_BATCH_SIZE + 1);
+        this.lint(config, files, ctx, toReturn::add);
+        return toReturn;
+    }
+
+    /**
+     * Same as {@link #execute(EsLintExecutorConfig, List, SensorContext)}, streaming the reports to the handler.
+     */
+    @Override
+    public void execute(EsLintExecutorConfig config, List<String> files, SensorContext ctx, EsLintReportHandler handler) {
+        this.lint(config, files, ctx, report -> {
+            try {
+                handler.handle(new StringReader(report));
+            } catch (IOException ex) {
+                LOG.error("Failed to read EsLint output", ex);
+            }
+        });
+    }
+
+    private void lint(EsLintExecutorConfig config, List<String> files, SensorContext ctx, Consumer<String> reportConsumer) {
+        if (config == null) {
+            throw new IllegalArgumentException("config");
+        }
+        if (files == null) {
+            throw new IllegalArgumentException("files");
+        }
+
+        List<String> command;
+        try {
+            command = getDaemonCommand(config, extractDaemonScript(this.tempFolder), ctx);
+        } catch (IOException e) {
+            throw new EsLintDaemonException("Failed to extract the EsLint daemon script", e);
+        }
+
+        int batchCount = (files.size() + DAEMON_BATCH_SIZE - 1) / DAEMON_BATCH_SIZE;
+        int workers = config.isPoolMode() ? Math.max(1, Math.min(config.getParallelism(), batchCount)) : 1;
+
+        EsLintTimingStore timings = EsLintTimingStore.load(ctx);
+        EsLintTimeoutPolicy timeouts = new EsLintTimeoutPolicy(config.getTimeoutMs(), config.isAdaptiveTimeout(),
+                config.getGlobalTimeoutMs(), timings.getMsPerUnit());
+        EsLintWorkerPool pool;
+        try {
+            pool = new EsLintWorkerPool(() -> this.startDaemon(command), workers, config.getWorkerMaxFiles(), config.getWorkerMaxHeapMb(), timings);
+        } catch (IOException e) {
+            throw new EsLintDaemonException("Failed to start the EsLint daemon", e);
+        }
+
+        int linted = 0;
+        try {
+            // Paths are streamed to the daemon, so only the cost of the batches matters. The daemons time every
+            // file, the files that were slow to lint in the previous analyses are scheduled first
+            BlockingQueue<CompletableFuture<String>> completed = new LinkedBlockingQueue<>();
+            int submitted = 0;
+            for (EsLintBatchPlanner.Batch batch : new EsLintBatchPlanner(timings).plan(files, path -> path, Integer.MAX_VALUE, batchCount)) {
+                if (!batch.getArguments().isEmpty()) {
+                    CompletableFuture<String> report = pool.submit(batch.getArguments(), batch.getCost(), timeouts);
+                    report.whenComplete((output, e) -> completed.add(report));
+                    submitted++;
+                }
+            }
+
+            // Reports are consumed as they complete, on this thread, so that a slow batch does not keep the reports
+            // of the batches submitted after it in memory
+            for (int i = 0; i < submitted; i++) {
+                String output = completed.take().get();
+                if (output != null) {
+                    linted++;
+                    reportConsumer.accept(output);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the EsLint daemon", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("EsLint daemon execution failed", e.getCause());
+        } finally {
+            pool.close();
+            pool.logStatistics();
+            timings.save();
+        }
+
+        // Falling back to one process per batch would not help once the global deadline has passed
+        if (batchCount > 0 && linted == 0 && !timeouts.isExpired()) {
+            // Typically the daemon could not load ESLint, nothing was linted
+            throw new EsLintDaemonException("The EsLint daemon failed on every batch", null);
+        }
+
+        LOG.debug("EsLint daemon linted {} files in {} batches on {} workers", files.size(), batchCount, workers);
+    }
+}
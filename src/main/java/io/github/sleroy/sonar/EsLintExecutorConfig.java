@@ -11,6 +11,9 @@
 package io.github.sleroy.sonar;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 public class EsLintExecutorConfig {
@@ -23,6 +26,23 @@ public class EsLintExecutorConfig {
     public static final String CONFIG_YAML2_FILENAME = ".eslintrc.yaml";
     public static final String CONFIG_FILENAME	     = ".eslintrc";
     public static final int    MAX_TIMEOUT	     = 10000;
+    public static final String EXECUTION_MODE_PROCESS = "process";
+    public static final String EXECUTION_MODE_DAEMON  = "daemon";
+    public static final String EXECUTION_MODE_POOL    = "pool";
+    public static final int    WORKER_MAX_FILES	      = 5000;
+    public static final int    WORKER_MAX_HEAP_MB     = 1024;
+    public static final String NODE_EXECUTABLE	      = "node";
+    public static final String MAX_OLD_SPACE_OPTION   = "--max-old-space-size";
+    // Heap limit of 64-bit Node on most hosts, the automatic heap size never lowers it
+    public static final int    NODE_DEFAULT_HEAP_MB   = 2048;
+    public static final int    NODE_HEAP_AUTOMATIC    = 0;
+    public static final int    NODE_HEAP_DEFAULT      = -1;
+    public static final String CACHE_DIRECTORY	      = "eslintcache";
+    // Survives the cleaning of the scanner working directory, CI caches and version control ignore it with node_modules
+    @SuppressWarnings("HardcodedFileSeparator")
+    public static final String PERSISTENT_DIRECTORY    = "node_modules/.cache/sonar-eslint";
+    public static final String CACHE_STRATEGY_CONTENT  = "content";
+    public static final String CACHE_STRATEGY_METADATA = "metadata";
 
     private String pathToEsLint;
     private String configFile;
@@ -31,6 +51,152 @@ public class EsLintExecutorConfig {
 
     private Integer timeoutMs;
 
+    private int parallelism = 1;
+
+    private String executionMode = EXECUTION_MODE_PROCESS;
+
+    private int workerMaxFiles = WORKER_MAX_FILES;
+
+    private int workerMaxHeapMb = WORKER_MAX_HEAP_MB;
+
+    private int maxCommandLength;
+
+    private String cacheLocation;
+
+    private String cacheStrategy = CACHE_STRATEGY_CONTENT;
+
+    private boolean readStdout;
+
+    private boolean adaptiveTimeout;
+
+    private long globalTimeoutMs;
+
+    private String nodePath = NODE_EXECUTABLE;
+
+    private List<String> nodeOptions = Collections.emptyList();
+
+    private int nodeMaxHeapMb;
+
+    /**
+     * Returns the maximum length of an EsLint command line.
+     *
+     * @return the length, 0 to use the limit of the operating system
+     */
+    public int getMaxCommandLength() {
+	return maxCommandLength;
+    }
+
+    public void setMaxCommandLength(final int maxCommandLength) {
+	this.maxCommandLength = maxCommandLength;
+    }
+
+    /**
+     * Returns the directory of the EsLint cache files.
+     *
+     * @return the directory, null if the EsLint cache is disabled
+     */
+    public String getCacheLocation() {
+	return cacheLocation;
+    }
+
+    public String getCacheStrategy() {
+	return cacheStrategy;
+    }
+
+    public void setCacheLocation(final String cacheLocation) {
+	this.cacheLocation = cacheLocation;
+    }
+
+    public void setCacheStrategy(final String cacheStrategy) {
+	this.cacheStrategy = cacheStrategy;
+    }
+
+    /**
+     * Tells whether the reports are read from the standard output of EsLint rather than from an output file.
+     *
+     * @return true to stream the standard output to the parser
+     */
+    public boolean isReadStdout() {
+	return readStdout;
+    }
+
+    public void setReadStdout(final boolean readStdout) {
+	this.readStdout = readStdout;
+    }
+
+    /**
+     * Tells whether the batch timeouts are lowered according to the observed EsLint throughput.
+     *
+     * @return true to kill stragglers early
+     */
+    public boolean isAdaptiveTimeout() {
+	return adaptiveTimeout;
+    }
+
+    public void setAdaptiveTimeout(final boolean adaptiveTimeout) {
+	this.adaptiveTimeout = adaptiveTimeout;
+    }
+
+    /**
+     * Returns the maximum time EsLint may run for the whole analysis.
+     *
+     * @return the time in milliseconds, 0 for no limit
+     */
+    public long getGlobalTimeoutMs() {
+	return globalTimeoutMs;
+    }
+
+    public void setGlobalTimeoutMs(final long globalTimeoutMs) {
+	this.globalTimeoutMs = globalTimeoutMs;
+    }
+
+    public String getNodePath() {
+	return nodePath;
+    }
+
+    public void setNodePath(final String nodePath) {
+	this.nodePath = nodePath;
+    }
+
+    public List<String> getNodeOptions() {
+	return nodeOptions;
+    }
+
+    public void setNodeOptions(final List<String> nodeOptions) {
+	this.nodeOptions = nodeOptions;
+    }
+
+    /**
+     * Returns the V8 old space size of the Node processes.
+     *
+     * @return the size in MB, 0 to keep the default of Node
+     */
+    public int getNodeMaxHeapMb() {
+	return nodeMaxHeapMb;
+    }
+
+    public void setNodeMaxHeapMb(final int nodeMaxHeapMb) {
+	this.nodeMaxHeapMb = nodeMaxHeapMb;
+    }
+
+    /**
+     * Returns the options to pass to Node before the script, including the heap size unless the options already
+     * set it.
+     *
+     * @return the options
+     */
+    public List<String> getNodeArguments() {
+	final List<String> arguments = new ArrayList<>(nodeOptions);
+	if (nodeMaxHeapMb > 0 && nodeOptions.stream().noneMatch(option -> option.startsWith(MAX_OLD_SPACE_OPTION))) {
+	    arguments.add(MAX_OLD_SPACE_OPTION + "=" + nodeMaxHeapMb);
+	}
+	return arguments;
+    }
+
+    public String getExecutionMode() {
+	return executionMode;
+    }
+
     public String getConfigFile() {
 	return configFile;
     }
@@ -47,6 +213,42 @@ public class EsLintExecutorConfig {
 	return timeoutMs;
     }
 
+    /**
+     * Returns the number of EsLint batches that may run at the same time.
+     *
+     * @return the parallelism, at least 1
+     */
+    public int getParallelism() {
+	return parallelism;
+    }
+
+    public int getWorkerMaxFiles() {
+	return workerMaxFiles;
+    }
+
+    public int getWorkerMaxHeapMb() {
+	return workerMaxHeapMb;
+    }
+
+    /**
+     * Checks if the files should be linted by long-lived EsLint daemons rather
+     * than by one EsLint process per batch.
+     *
+     * @return true, if the daemon or the pool mode is selected
+     */
+    public boolean isDaemonMode() {
+	return EXECUTION_MODE_DAEMON.equals(executionMode) || isPoolMode();
+    }
+
+    /**
+     * Checks if the files should be linted by a pool of EsLint daemons.
+     *
+     * @return true, if the pool mode is selected
+     */
+    public boolean isPoolMode() {
+	return EXECUTION_MODE_POOL.equals(executionMode);
+    }
+
     /**
      * Checks if is path to eslint is the same at the argument
      *
@@ -58,6 +260,18 @@ public class EsLintExecutorConfig {
 	return Objects.equals(pathToEsLint, eslintPath);
     }
 
+    public void setExecutionMode(final String executionMode) {
+	this.executionMode = executionMode;
+    }
+
+    public void setWorkerMaxFiles(final int workerMaxFiles) {
+	this.workerMaxFiles = workerMaxFiles;
+    }
+
+    public void setWorkerMaxHeapMb(final int workerMaxHeapMb) {
+	this.workerMaxHeapMb = workerMaxHeapMb;
+    }
+
     public void setConfigFile(final String configFile) {
 	this.configFile = configFile;
     }
@@ -74,10 +288,19 @@ public class EsLintExecutorConfig {
 	this.timeoutMs = timeoutMs;
     }
 
+    public void setParallelism(final int parallelism) {
+	this.parallelism = parallelism;
+    }
+
     @Override
     public String toString() {
 	return "EsLintExecutorConfig [pathToEsLint=" + pathToEsLint + ", configFile=" + configFile + ", rulesDir="
-		+ rulesDir + ", timeoutMs=" + timeoutMs + "]";
+		+ rulesDir + ", timeoutMs=" + timeoutMs + ", parallelism=" + parallelism
+		+ ", executionMode=" + executionMode + ", workerMaxFiles=" + workerMaxFiles + ", workerMaxHeapMb="
+		+ workerMaxHeapMb + ", maxCommandLength=" + maxCommandLength + ", cacheLocation=" + cacheLocation + ", cacheStrategy=" + cacheStrategy
+		+ ", readStdout=" + readStdout
+		+ ", adaptiveTimeout=" + adaptiveTimeout + ", globalTimeoutMs=" + globalTimeoutMs
+		+ ", nodePath=" + nodePath + ", nodeOptions=" + nodeOptions + ", nodeMaxHeapMb=" + nodeMaxHeapMb + "]";
     }
 
 }
@@ -10,6 +10,10 @@
  */
 package io.github.sleroy.sonar;
 
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -28,6 +32,91 @@ public class EsLintExecutorConfigFactory {
 		ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_TIMEOUT).orElse(EsLintExecutorConfig.MAX_TIMEOUT));
     }
 
+    /**
+     * Evaluates the number of concurrent EsLint batches, defaulting to the
+     * number of available processors.
+     */
+    private static int evaluateParallelismSetting(final SensorContext ctx) {
+	final int parallelism = ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_PARALLELISM).orElse(0);
+	if (parallelism > 0) {
+	    return parallelism;
+	}
+	return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Evaluates the heap size of the Node processes. The default of Node is kept unless a size is set, or unless
+     * the automatic size is asked for, in which case the physical memory left by the scanner is shared between the
+     * Node processes running concurrently.
+     *
+     * @return the size in MB, 0 to keep the default of Node
+     */
+    private static int evaluateNodeMaxHeapSetting(final SensorContext ctx, final EsLintExecutorConfig config) {
+	final int setting = ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_NODE_MAX_HEAP)
+		.orElse(EsLintExecutorConfig.NODE_HEAP_DEFAULT);
+	if (setting != EsLintExecutorConfig.NODE_HEAP_AUTOMATIC) {
+	    return Math.max(0, setting);
+	}
+	final int processes = config.isDaemonMode() && !config.isPoolMode() ? 1 : config.getParallelism();
+	return automaticNodeMaxHeapMb(totalPhysicalMemoryMb(), Runtime.getRuntime().maxMemory() / (1024 * 1024),
+		processes);
+    }
+
+    /**
+     * Shares the memory left by the scanner between the Node processes, keeping a quarter of it for the system.
+     * The heap is only ever raised: a share below the default of Node keeps the default.
+     *
+     * @return the size in MB, 0 to keep the default of Node
+     */
+    static int automaticNodeMaxHeapMb(final long totalMemoryMb, final long scannerHeapMb, final int processes) {
+	if (totalMemoryMb <= 0) {
+	    return 0;
+	}
+	final long available = (totalMemoryMb - scannerHeapMb) * 3 / 4;
+	final long share = available / Math.max(1, processes);
+	return share > EsLintExecutorConfig.NODE_DEFAULT_HEAP_MB ? (int) share : 0;
+    }
+
+    private static long totalPhysicalMemoryMb() {
+	final java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+	if (os instanceof com.sun.management.OperatingSystemMXBean) {
+	    return ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize() / (1024 * 1024);
+	}
+	return 0;
+    }
+
+    /**
+     * Returns the directory of what the plugin keeps from one analysis to the next, the scanner cleaning its working
+     * directory at the start of every analysis.
+     *
+     * @param ctx the sensor context
+     * @return the directory, which may not exist yet
+     */
+    public static File persistentDirectory(final SensorContext ctx) {
+	return new File(ctx.fileSystem().baseDir(), EsLintExecutorConfig.PERSISTENT_DIRECTORY);
+    }
+
+    /**
+     * Evaluates the directory of the EsLint cache, relative paths being
+     * resolved against the project base directory.
+     *
+     * @return the directory, null if the EsLint cache is disabled
+     */
+    private static String evaluateCacheLocationSetting(final SensorContext ctx) {
+	if (!ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_CACHE).orElse(Boolean.FALSE)) {
+	    return null;
+	}
+
+	final String path = ctx.config().get(EsLintPlugin.SETTING_ES_LINT_CACHE_LOCATION).orElse("").trim();
+	File location = new File(path);
+	if (path.isEmpty()) {
+	    location = new File(persistentDirectory(ctx), EsLintExecutorConfig.CACHE_DIRECTORY);
+	} else if (!location.isAbsolute()) {
+	    location = new File(ctx.fileSystem().baseDir(), path);
+	}
+	return location.getAbsolutePath();
+    }
+
     /**
      * Buildsw the configuration from the settings.
      *
@@ -58,6 +147,26 @@ public class EsLintExecutorConfigFactory {
 		.ifPresent(path -> toReturn.setRulesDir(path));
 
 	toReturn.setTimeoutMs(evaluateTimeoutSetting(ctx));
+	toReturn.setParallelism(evaluateParallelismSetting(ctx));
+	toReturn.setExecutionMode(ctx.config().get(EsLintPlugin.SETTING_ES_LINT_EXECUTION_MODE)
+		.orElse(EsLintExecutorConfig.EXECUTION_MODE_PROCESS));
+	toReturn.setWorkerMaxFiles(ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_WORKER_MAX_FILES)
+		.orElse(EsLintExecutorConfig.WORKER_MAX_FILES));
+	toReturn.setWorkerMaxHeapMb(ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_WORKER_MAX_HEAP)
+		.orElse(EsLintExecutorConfig.WORKER_MAX_HEAP_MB));
+	toReturn.setMaxCommandLength(ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_MAX_COMMAND_LENGTH).orElse(0));
+	toReturn.setCacheLocation(evaluateCacheLocationSetting(ctx));
+	toReturn.setCacheStrategy(ctx.config().get(EsLintPlugin.SETTING_ES_LINT_CACHE_STRATEGY)
+		.orElse(EsLintExecutorConfig.CACHE_STRATEGY_CONTENT));
+	toReturn.setAdaptiveTimeout(ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_ADAPTIVE_TIMEOUT).orElse(Boolean.FALSE));
+	toReturn.setGlobalTimeoutMs(ctx.config().getLong(EsLintPlugin.SETTING_ES_LINT_GLOBAL_TIMEOUT).orElse(0L));
+	toReturn.setReadStdout(ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_READ_STDOUT).orElse(Boolean.FALSE));
+	toReturn.setNodePath(ctx.config().get(EsLintPlugin.SETTING_ES_LINT_NODE_PATH).map(String::trim)
+		.filter(path -> !path.isEmpty()).orElse(EsLintExecutorConfig.NODE_EXECUTABLE));
+	toReturn.setNodeOptions(ctx.config().get(EsLintPlugin.SETTING_ES_LINT_NODE_OPTIONS).map(String::trim)
+		.filter(options -> !options.isEmpty()).map(options -> Arrays.asList(options.split("\\s+")))
+		.orElse(Collections.emptyList()));
+	toReturn.setNodeMaxHeapMb(evaluateNodeMaxHeapSetting(ctx, toReturn));
 
 	return toReturn;
     }
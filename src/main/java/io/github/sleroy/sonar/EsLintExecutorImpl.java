@@ -1,34 +1,84 @@
 package io.github.sleroy.sonar;
 
 import io.github.sleroy.sonar.api.EsLintExecutor;
+import io.github.sleroy.sonar.api.EsLintReportHandler;
+import com.google.gson.JsonParseException;
+import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.command.Command;
+import org.sonar.api.utils.command.CommandException;
 import org.sonar.api.utils.command.CommandExecutor;
 import org.sonar.api.utils.command.StreamConsumer;
-import org.sonar.api.utils.command.StringStreamConsumer;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class EsLintExecutorImpl implements EsLintExecutor {
-    public static final int MAX_COMMAND_LENGTH = 4096;
+    // cmd.exe limit, EsLint being often started through a .cmd shim on Windows
+    public static final int WINDOWS_MAX_COMMAND_LENGTH = 8191;
+    // Linux limits each argument to 128 KB and ARG_MAX is at least 256 KB on macOS, environment included
+    public static final int POSIX_MAX_COMMAND_LENGTH = 131072;
+    // Several batches per worker, so that a slower batch does not leave the other workers idle
+    public static final int BATCHES_PER_WORKER = 4;
+    // Files below which a batch is not worth starting another EsLint process for, so small projects use fewer batches
+    public static final int MIN_FILES_PER_BATCH = 16;
+    // Slots of the EsLint cache, fixed so that a file keeps its cache file whatever the cores of the machine
+    public static final int CACHE_SLOTS = 8;
+    // Output kept per batch and per stream to diagnose failures, the rest is discarded
+    public static final int OUTPUT_TAIL_CHARS = 16 * 1024;
+    // EsLint exits with 1 when it found issues, 2 when it could not lint
+    private static final int ESLINT_FATAL_EXIT_CODE = 2;
+    // Extra EsLint runs allowed per analysis to isolate the files EsLint fails on
+    public static final int MAX_BISECTION_RUNS = 64;
+    @SuppressWarnings("HardcodedFileSeparator")
+    public static final String STDOUT_FORMATTER_RESOURCE_PATH = "/eslint/eslint-stdout-formatter.js";
+    // Written by the stdout formatter on the line before the report, whatever is printed before is skipped
+    public static final String STDOUT_REPORT_MARKER = "<<<sonar-eslint-report>>>";
+    private static final String JSON_FORMAT = "json";
     private static final Logger LOG = LoggerFactory.getLogger(EsLintExecutorImpl.class);
     private final TempFolder tempFolder;
     private final boolean mustQuoteSpaceContainingPaths;
+    private final int defaultMaxCommandLength;
 
     public EsLintExecutorImpl(System2 system, TempFolder tempFolder) {
         this.mustQuoteSpaceContainingPaths = system.isOsWindows();
+        this.defaultMaxCommandLength = system.isOsWindows() ? WINDOWS_MAX_COMMAND_LENGTH : POSIX_MAX_COMMAND_LENGTH;
         this.tempFolder = tempFolder;
     }
 
@@ -42,6 +92,18 @@ public class EsLintExecutorImpl implements EsLintExecutor {
         return CommandExecutor.create();
     }
 
+    protected Process startProcess(Command command) throws IOException {
+        List<String> commandLine = new ArrayList<>();
+        commandLine.add(command.getExecutable());
+        commandLine.addAll(command.getArguments());
+        ProcessBuilder builder = new ProcessBuilder(commandLine);
+        builder.environment().putAll(command.getEnvironmentVariables());
+        if (command.getDirectory() != null) {
+            builder.directory(command.getDirectory());
+        }
+        return builder.start();
+    }
+
     private String preparePath(String path) {
         if (path == null) {
             return null;
@@ -52,18 +114,34 @@ public class EsLintExecutorImpl implements EsLintExecutor {
         }
     }
 
+    /**
+     * Extracts the formatter delimiting the reports written to the standard output from the plugin jar.
+     */
+    private File extractStdoutFormatter() {
+        File formatter = this.tempFolder.newFile("eslint-stdout-formatter", ".js");
+        try (InputStream resource = EsLintExecutorImpl.class.getResourceAsStream(STDOUT_FORMATTER_RESOURCE_PATH)) {
+            FileUtils.copyInputStreamToFile(resource, formatter);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to extract the EsLint stdout formatter", e);
+        }
+        return formatter;
+    }
+
     private Command getBaseCommand(
         EsLintExecutorConfig config,
+        String format,
         String tempPath,
+        String cachePath,
         final SensorContext ctx
     ) {
         Command command =
                 Command
-                        .create("node")
+                        .create(config.getNodePath())
+                        .addArguments(config.getNodeArguments())
                         .addArgument(this.preparePath(config.getPathToEsLint()));
         command
                 .addArgument("-f")
-                .addArgument("json");
+                .addArgument(format);
 
         //Add argument to eslint ignore the eslint-disable comments
         if (ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_ENABLE_NO_INLINE_CFG).orElse(Boolean.FALSE)) {
@@ -87,6 +165,20 @@ public class EsLintExecutorImpl implements EsLintExecutor {
                 .addArgument("--config")
                 .addArgument(this.preparePath(config.getConfigFile()));
 
+        if (cachePath != null) {
+            command
+                    .addArgument("--cache")
+                    .addArgument("--cache-location")
+                    .addArgument(this.preparePath(cachePath));
+
+            String cacheStrategy = config.getCacheStrategy();
+            if (cacheStrategy != null && !cacheStrategy.isEmpty()) {
+                command
+                        .addArgument("--cache-strategy")
+                        .addArgument(cacheStrategy);
+            }
+        }
+
 
         command.setNewShell(false);
 
@@ -95,6 +187,140 @@ public class EsLintExecutorImpl implements EsLintExecutor {
 
     @Override
     public List<String> execute(EsLintExecutorConfig config, List<String> files, SensorContext ctx) {
+        List<String> toReturn = new ArrayList<>(100);
+        this.executeBatches(config, files, ctx, false, null, outputFile -> {
+            String output = this.readOutput(outputFile);
+            if (output.trim().isEmpty()) {
+                logMissingOutput(outputFile);
+            } else {
+                toReturn.add(output);
+            }
+        });
+        return toReturn;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When the configuration asks to read the standard output of EsLint, the reports are parsed straight from it
+     * without any output file. Each batch thread then waits for the calling thread to handle its report.
+     */
+    @Override
+    public void execute(EsLintExecutorConfig config, List<String> files, SensorContext ctx, EsLintReportHandler handler) {
+        if (config != null && config.isReadStdout()) {
+            this.executeBatches(config, files, ctx, true, handler, outputFile -> {
+            });
+            return;
+        }
+
+        this.executeBatches(config, files, ctx, true, null, outputFile -> {
+            try (final BufferedReader reader = this.getBufferedReaderForFile(outputFile)) {
+                reader.mark(1);
+                if (reader.read() == -1) {
+                    logMissingOutput(outputFile);
+                    return;
+                }
+                reader.reset();
+                handler.handle(reader);
+            } catch (IOException ex) {
+                LOG.error("Failed to read EsLint output", ex);
+            }
+        });
+    }
+
+    /**
+     * EsLint always writes a report, an empty array when every file is clean. Files skipped thanks to its cache
+     * are still reported, with the messages EsLint stored in the cache when it last linted them.
+     * No report at all means that EsLint failed, so the files of the batch have not been analysed.
+     */
+    private static void logMissingOutput(File outputFile) {
+        LOG.warn("EsLint produced no output in {}, the files of this batch have not been analysed", outputFile.getAbsolutePath());
+    }
+
+    private static void deleteOutput(File outputFile) {
+        if (!outputFile.delete() && outputFile.exists()) {
+            LOG.debug("Cannot delete EsLint output {}", outputFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Returns the cache file of a part of a cache slot. EsLint rewrites its cache file with the files it processed
+     * only, so concurrent processes must not share it, and a file must be linted with the same cache file from
+     * one analysis to the next.
+     */
+    private static String getCachePath(EsLintExecutorConfig config, int slot, int part) {
+        String name = part == 0 ? "slot-" + slot : "slot-" + slot + "-" + part;
+        return new File(config.getCacheLocation(), name).getAbsolutePath();
+    }
+
+    /**
+     * Returns the cache slot of a file, which only depends on its path relative to the base directory.
+     */
+    static int getCacheSlot(String file, File baseDir, int slots) {
+        Path path = Paths.get(file.trim());
+        if (path.isAbsolute()) {
+            try {
+                path = baseDir.toPath().toAbsolutePath().relativize(path);
+            } catch (IllegalArgumentException e) {
+                LOG.debug("{} is not on the drive of the base directory", file);
+            }
+        }
+        return Math.floorMod(path.toString().replace('\\', '/').hashCode(), slots);
+    }
+
+    /**
+     * Batches the files by cache slot, a slot whose files do not fit on a single command line being split in
+     * consecutive parts, each with its own cache file.
+     *
+     * @param cachePaths receives the cache file of each batch
+     * @return the batches, most expensive first
+     */
+    private List<EsLintBatchPlanner.Batch> planCacheSlots(EsLintExecutorConfig config, List<String> files, SensorContext ctx,
+                                                       EsLintBatchPlanner planner, int maxLength,
+                                                       Map<EsLintBatchPlanner.Batch, String> cachePaths) {
+        File baseDir = ctx.fileSystem().baseDir();
+        Map<Integer, List<String>> filesBySlot = new TreeMap<>();
+        for (String file : files) {
+            filesBySlot.computeIfAbsent(getCacheSlot(file, baseDir, CACHE_SLOTS), slot -> new ArrayList<>()).add(file);
+        }
+
+        List<EsLintBatchPlanner.Batch> batches = new ArrayList<>();
+        for (Map.Entry<Integer, List<String>> slot : filesBySlot.entrySet()) {
+            // Sorted, so that a new file only moves the files after it to the next part
+            List<String> slotFiles = slot.getValue();
+            Collections.sort(slotFiles);
+            List<EsLintBatchPlanner.Batch> parts = planner.chunk(slotFiles, this::preparePath, maxLength);
+            for (int part = 0, np = parts.size(); part < np; part++) {
+                cachePaths.put(parts.get(part), getCachePath(config, slot.getKey(), part));
+            }
+            batches.addAll(parts);
+        }
+        if (batches.isEmpty()) {
+            batches.addAll(planner.chunk(files, this::preparePath, maxLength));
+            cachePaths.put(batches.get(0), getCachePath(config, 0, 0));
+        }
+        batches.sort(Comparator.comparingDouble(EsLintBatchPlanner.Batch::getCost).reversed());
+        return batches;
+    }
+
+    /**
+     * Returns the number of batches to spread the files over: several batches per worker, long command lines would
+     * otherwise leave most workers without any batch, but no more than the files allow, each EsLint process
+     * loading the configuration and the plugins before linting anything.
+     */
+    static int getMinimumBatches(int parallelism, int files) {
+        if (parallelism <= 1) {
+            return 1;
+        }
+        return Math.max(1, Math.min(parallelism * BATCHES_PER_WORKER, files / MIN_FILES_PER_BATCH));
+    }
+
+    /**
+     * Runs the batches and hands over their output files to the consumer, or streams the standard output of
+     * EsLint to the handler when one is given, in which case the consumer receives nothing.
+     */
+    private void executeBatches(EsLintExecutorConfig config, List<String> files, SensorContext ctx,
+                                boolean inCompletionOrder, EsLintReportHandler stdoutHandler, Consumer<File> outputConsumer) {
         if (config == null) {
             throw new IllegalArgumentException("config");
         }
@@ -102,70 +328,339 @@ public class EsLintExecutorImpl implements EsLintExecutor {
             throw new IllegalArgumentException("files");
         }
 
+        if (config.getCacheLocation() != null && !new File(config.getCacheLocation()).mkdirs()) {
+            LOG.debug("Using existing EsLint cache directory {}", config.getCacheLocation());
+        }
+
         // New up a command that's everything we need except the files to process
         // We'll use this as our reference for chunking up files, if we need to
-        File eslintOutputFile = this.tempFolder.newFile();
-        String eslintOutputFilePath = eslintOutputFile.getAbsolutePath();
-        Command baseCommand = this.getBaseCommand(config, eslintOutputFilePath, ctx);
+        File firstOutputFile = stdoutHandler == null ? this.tempFolder.newFile() : null;
+        // The longest cache path is assumed, so that every batch fits whatever its slot
+        String longestCachePath = config.getCacheLocation() == null ? null : getCachePath(config, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        // The standard output is shared with whatever rules and plugins print, the report is delimited
+        String format = stdoutHandler == null ? JSON_FORMAT : this.preparePath(this.extractStdoutFormatter().getAbsolutePath());
+        Command baseCommand = this.getBaseCommand(config, format, firstOutputFile == null ? null : firstOutputFile.getAbsolutePath(), longestCachePath, ctx);
 
-        LOG.debug("Using a temporary path for EsLint output: {}", eslintOutputFilePath);
+        int baseCommandLength = baseCommand.toCommandLine().length();
+        int maxCommandLength = config.getMaxCommandLength() > 0 ? config.getMaxCommandLength() : this.defaultMaxCommandLength;
+        int availableForBatching = maxCommandLength - baseCommandLength;
+
+        // Files that were slow to lint in the previous analyses are scheduled first, the others by size
+        EsLintTimingStore timings = EsLintTimingStore.load(ctx);
+        EsLintBatchPlanner planner = new EsLintBatchPlanner(timings);
+        Map<EsLintBatchPlanner.Batch, String> cachePaths = new HashMap<>();
+        List<EsLintBatchPlanner.Batch> batches;
+        if (config.getCacheLocation() != null) {
+            // A file must keep its cache file, the batches cannot be balanced from one analysis to the next
+            batches = this.planCacheSlots(config, files, ctx, planner, availableForBatching, cachePaths);
+        } else {
+            int minimumBatches = getMinimumBatches(config.getParallelism(), files.size());
+            batches = planner.plan(files, this::preparePath, availableForBatching, minimumBatches);
+        }
+        EsLintTimeoutPolicy timeouts = new EsLintTimeoutPolicy(config.getTimeoutMs(), config.isAdaptiveTimeout(),
+                config.getGlobalTimeoutMs(), timings.getMsPerUnit());
+
+        int workers = Math.max(1, Math.min(config.getParallelism(), batches.size()));
+        LOG.debug("Split {} files into  {} batches for processing on {} workers", files.size(), batches.size(), workers);
+
+        // Each batch writes to its own output files so that batches can run concurrently
+        List<Callable<List<File>>> tasks = new ArrayList<>(batches.size());
+        // Reports read from stdout by the batch threads are handed over to the calling thread
+        ReportHandOff handOff = stdoutHandler != null && workers > 1 ? new ReportHandOff(workers) : null;
+        EsLintReportHandler batchHandler = handOff != null ? handOff : stdoutHandler;
+        AtomicInteger bisectionBudget = new AtomicInteger(MAX_BISECTION_RUNS);
+        for (int i = 0, ni = batches.size(); i < ni; i++) {
+            EsLintBatchPlanner.Batch thisBatch = batches.get(i);
+            // The runs isolating the files EsLint fails on lint part of the slot only, they would empty its cache
+            String cachePath = cachePaths.get(thisBatch);
+            if (stdoutHandler != null) {
+                // The reports are handled as they are read, there is no output file to hand over
+                tasks.add(() -> {
+                    this.bisect(thisBatch, bisectionBudget, timeouts,
+                            batch -> this.executeBatchToHandler(config, format, batch, batch == thisBatch ? cachePath : null, ctx, batchHandler, timings, timeouts));
+                    return Collections.<File>emptyList();
+                });
+                continue;
+            }
 
-        StreamConsumer stdOutConsumer = new StringStreamConsumer();
-        StreamConsumer stdErrConsumer = new StringStreamConsumer();
+            // Empty until the batch runs, and deleted once read, so only the files of unread batches have content
+            File batchOutputFile = i == 0 ? firstOutputFile : this.tempFolder.newFile();
+            tasks.add(() -> {
+                List<File> outputFiles = new ArrayList<>(1);
+                this.bisect(thisBatch, bisectionBudget, timeouts, batch -> {
+                    File outputFile = batch == thisBatch ? batchOutputFile : this.tempFolder.newFile();
+                    boolean succeeded = this.executeBatch(config, batch, outputFile, batch == thisBatch ? cachePath : null, ctx, timings, timeouts);
+                    if (succeeded) {
+                        outputFiles.add(outputFile);
+                    } else {
+                        deleteOutput(outputFile);
+                    }
+                    return succeeded;
+                });
+                return outputFiles;
+            });
+        }
 
-        List<String> toReturn = new ArrayList<>(100);
-        int baseCommandLength = baseCommand.toCommandLine().length();
-        int availableForBatching = MAX_COMMAND_LENGTH - baseCommandLength;
+        // Output files are deleted as soon as they are read
+        Consumer<File> consumeAndDelete = outputConsumer.andThen(EsLintExecutorImpl::deleteOutput);
+        try {
+            if (workers == 1) {
+                for (Callable<List<File>> task : tasks) {
+                    this.runBatch(task).forEach(consumeAndDelete);
+                }
+            } else if (handOff != null) {
+                this.executeConcurrently(tasks, workers, handOff, stdoutHandler);
+            } else {
+                this.executeConcurrently(tasks, workers, inCompletionOrder, consumeAndDelete);
+            }
+        } finally {
+            timings.save();
+        }
+    }
 
-        List<List<String>> batches = new ArrayList<>(100);
-        List<String> currentBatch = new ArrayList<>();
-        batches.add(currentBatch);
+    /**
+     * Runs the batches on a pool of workers. Their output is handed over on the calling thread, either in the
+     * order of the batches, or as soon as each batch completes so that its processing overlaps the
+     * remaining batches.
+     */
+    private void executeConcurrently(List<Callable<List<File>>> tasks, int workers, boolean inCompletionOrder, Consumer<File> outputConsumer) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers, new BatchThreadFactory());
+        try {
+            CompletionService<List<File>> completionService = new ExecutorCompletionService<>(pool);
+            List<Future<List<File>>> futures = new ArrayList<>(tasks.size());
+            for (Callable<List<File>> task : tasks) {
+                futures.add(completionService.submit(task));
+            }
 
-        int currentBatchLength = 0;
-        for (int i = 0, ni = files.size(); i < ni; i++) {
-            String nextPath = this.preparePath(files.get(i).trim());
+            for (int i = 0, n = futures.size(); i < n; i++) {
+                Future<List<File>> future = inCompletionOrder ? completionService.take() : futures.get(i);
+                future.get().forEach(outputConsumer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for EsLint batches", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("EsLint batch execution failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-            // +1 for the space we'll be adding between filenames
-            if (currentBatchLength + nextPath.length() + 1 > availableForBatching) {
-                // Too long to add to this batch, create new
-                currentBatch = new ArrayList<>(100);
-                currentBatchLength = 0;
-                batches.add(currentBatch);
+    /**
+     * Runs the batches on a pool of workers and handles the reports they read from the standard output of EsLint on
+     * the calling thread, as they are handed over.
+     */
+    private void executeConcurrently(List<Callable<List<File>>> tasks, int workers, ReportHandOff handOff, EsLintReportHandler handler) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers, new BatchThreadFactory());
+        try {
+            List<Future<List<File>>> futures = new ArrayList<>(tasks.size());
+            for (Callable<List<File>> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    try {
+                        return task.call();
+                    } finally {
+                        handOff.finished();
+                    }
+                }));
             }
 
-            currentBatch.add(nextPath);
-            currentBatchLength += nextPath.length() + 1;
+            handOff.drain(tasks.size(), handler);
+            for (Future<List<File>> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for EsLint batches", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("EsLint batch execution failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
         }
+    }
 
-        LOG.debug("Split {} files into  {} batches for processing", files.size(), batches.size());
+    private List<File> runBatch(Callable<List<File>> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("EsLint batch execution failed", e);
+        }
+    }
 
-        for (int i = 0, ni = batches.size(); i < ni; i++) {
-            StringBuilder outputBuilder = new StringBuilder();
-            List<String> thisBatch = batches.get(i);
-            Command thisCommand = this.getBaseCommand(config, eslintOutputFilePath, ctx);
+    /**
+     * Runs EsLint on a batch of files.
+     */
+    @FunctionalInterface
+    private interface BatchRun {
+        /**
+         * @return false if EsLint crashed or timed out, so that the files have not been linted
+         */
+        boolean run(EsLintBatchPlanner.Batch batch) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Runs a batch, and when EsLint fails on it, splits it and runs both halves until the files EsLint fails on
+     * are isolated, so that a single pathological file does not lose the results of the whole batch.
+     *
+     * @param budget   the extra runs left for the analysis, the files of a failed batch are skipped once exhausted
+     * @param timeouts the timeouts, no batch is run once their global deadline has passed
+     */
+    private void bisect(EsLintBatchPlanner.Batch batch, AtomicInteger budget, EsLintTimeoutPolicy timeouts, BatchRun run) throws IOException, InterruptedException {
+        if (timeouts.isExpired()) {
+            LOG.error("EsLint global timeout reached, {} files have not been analysed: {}", batch.getPaths().size(), batch.getPaths());
+            return;
+        }
+        if (run.run(batch)) {
+            return;
+        }
 
-            for (int fileIndex = 0, nf = thisBatch.size(); fileIndex < nf; fileIndex++) {
-                thisCommand.addArgument(thisBatch.get(fileIndex));
+        List<String> paths = batch.getPaths();
+        if (paths.size() == 1) {
+            LOG.error("EsLint failed on {}, it has not been analysed", paths.get(0));
+        } else if (budget.addAndGet(-2) < 0) {
+            LOG.error("EsLint failed on a batch of {} files, they have not been analysed: {}", paths.size(), paths);
+        } else {
+            LOG.warn("EsLint failed on a batch of {} files, splitting it to find the files it fails on", paths.size());
+            for (EsLintBatchPlanner.Batch half : batch.split()) {
+                this.bisect(half, budget, timeouts, run);
             }
+        }
+    }
 
-            LOG.debug("Executing EsLint with command: {}", thisCommand.toCommandLine());
+    private boolean executeBatch(EsLintExecutorConfig config, EsLintBatchPlanner.Batch thisBatch, File outputFile, String cachePath,
+                                 SensorContext ctx, EsLintTimingStore timings, EsLintTimeoutPolicy timeouts) {
+        Command thisCommand = this.getBaseCommand(config, JSON_FORMAT, outputFile.getAbsolutePath(), cachePath, ctx);
 
-            // Timeout is specified per file, not per batch (which can vary a lot)
-            // so multiply it up
-            String commandOutput = this.getCommandOutput(thisCommand, stdOutConsumer, stdErrConsumer, eslintOutputFile, config.getTimeoutMs() * thisBatch.size());
-            toReturn.add(commandOutput);
+        List<String> arguments = thisBatch.getArguments();
+        for (int fileIndex = 0, nf = arguments.size(); fileIndex < nf; fileIndex++) {
+            thisCommand.addArgument(arguments.get(fileIndex));
         }
 
-        return toReturn;
+        LOG.debug("Using a temporary path for EsLint output: {}", outputFile.getAbsolutePath());
+        LOG.debug("Executing EsLint with command: {}", thisCommand.toCommandLine());
+
+        // Each batch gets its own consumers, which only keep the end of the output
+        BoundedStreamConsumer stdOutConsumer = new BoundedStreamConsumer(OUTPUT_TAIL_CHARS);
+        BoundedStreamConsumer stdErrConsumer = new BoundedStreamConsumer(OUTPUT_TAIL_CHARS);
+
+        // Timeout is specified per small file, not per batch (which can vary a lot)
+        // so the policy multiplies it up by the cost of the batch
+        long timeoutMs = timeouts.timeoutMs(thisBatch.getCost());
+        long start = System.nanoTime();
+        try {
+            int exitCode = this.createExecutor().execute(thisCommand, stdOutConsumer, stdErrConsumer, timeoutMs);
+            logFailure(exitCode, stdOutConsumer, stdErrConsumer);
+            if (exitCode >= ESLINT_FATAL_EXIT_CODE) {
+                return false;
+            }
+            timeouts.record(thisBatch.getCost(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (CommandException e) {
+            LOG.error("EsLint failed: {}{}{}", e.getMessage(), System.lineSeparator(), stdErrConsumer.getTail());
+            return false;
+        } finally {
+            timings.recordBatch(thisBatch.getPaths(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Logs the end of the output of EsLint when it could not lint the files, the output is discarded otherwise.
+     */
+    private static void logFailure(int exitCode, BoundedStreamConsumer stdOut, BoundedStreamConsumer stdErr) {
+        if (exitCode >= ESLINT_FATAL_EXIT_CODE) {
+            LOG.error("EsLint exited with code {}{}stdout:{}{}stderr:{}{}", exitCode, System.lineSeparator(),
+                    System.lineSeparator(), stdOut.getTail(), System.lineSeparator(), stdErr.getTail());
+        }
     }
 
-    private String getCommandOutput(Command thisCommand, StreamConsumer stdOutConsumer, StreamConsumer stdErrConsumer, File tslintOutputFile, Integer timeoutMs) {
+    /**
+     * Runs a batch and streams the standard output of EsLint to the handler, without any intermediate file. The
+     * time EsLint took to lint the files is recorded until it started writing the report.
+     *
+     * @param format the stdout formatter, which writes the report after a marker line
+     * @return false if EsLint failed without writing any report
+     */
+    private boolean executeBatchToHandler(EsLintExecutorConfig config, String format, EsLintBatchPlanner.Batch thisBatch, String cachePath,
+                                          SensorContext ctx, EsLintReportHandler handler, EsLintTimingStore timings,
+                                          EsLintTimeoutPolicy timeouts) throws IOException, InterruptedException {
+        Command thisCommand = this.getBaseCommand(config, format, null, cachePath, ctx);
+        thisCommand.addArguments(thisBatch.getArguments());
         LOG.debug("Executing EsLint with command: {}", thisCommand.toCommandLine());
 
-        // Timeout is specified per file, not per batch (which can vary a lot)
-        // so multiply it up
-        this.createExecutor().execute(thisCommand, stdOutConsumer, stdErrConsumer, timeoutMs);
+        long timeoutMs = timeouts.timeoutMs(thisBatch.getCost());
+        long start = System.nanoTime();
+        Process process = this.startProcess(thisCommand);
+        BoundedStreamConsumer stdErrConsumer = new BoundedStreamConsumer(OUTPUT_TAIL_CHARS);
+        ProcessWatchdog watchdog = new ProcessWatchdog(process, timeoutMs, stdErrConsumer);
+        watchdog.start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            // EsLint writes its report once every file is linted, wait for it before handing it over
+            boolean reported = skipToReport(reader);
+            long lintTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            timings.recordBatch(thisBatch.getPaths(), lintTimeMs);
+            if (!reported || watchdog.timedOut) {
+                return false;
+            }
+            timeouts.record(thisBatch.getCost(), lintTimeMs);
+            handleReport(handler, new ReportLineReader(reader));
+            return true;
+        } catch (IOException ex) {
+            LOG.error("Failed to read EsLint output", ex);
+            // The rest of the report is never read, EsLint could block writing it
+            process.destroyForcibly();
+            // Part of the report may have been handled already, the batch must not be run again
+            return true;
+        } finally {
+            int exitCode = process.waitFor();
+            // Lets the watchdog read the last errors
+            watchdog.join(TimeUnit.SECONDS.toMillis(5));
+            logFailure(exitCode, new BoundedStreamConsumer(0), stdErrConsumer);
+        }
+    }
+
+    /**
+     * Skips what rules and plugins printed until the marker the stdout formatter writes before the report.
+     *
+     * @return false if EsLint exited without writing any report
+     */
+    private static boolean skipToReport(BufferedReader output) throws IOException {
+        int skippedLines = 0;
+        String line;
+        //noinspection NestedAssignment
+        while ((line = output.readLine()) != null) {
+            if (STDOUT_REPORT_MARKER.equals(line)) {
+                if (skippedLines > 0) {
+                    LOG.debug("Skipped {} lines EsLint printed before its report", skippedLines);
+                }
+                return true;
+            }
+            if (!line.isEmpty()) {
+                skippedLines++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Handles a report, a malformed report, typically the truncated report of a crashed EsLint, failing its batch
+     * only.
+     */
+    private static void handleReport(EsLintReportHandler handler, Reader report) throws IOException {
+        try {
+            handler.handle(report);
+        } catch (JsonParseException | IllegalStateException | IllegalArgumentException e) {
+            throw new IOException("Malformed EsLint report", e);
+        }
+    }
 
+    private String readOutput(File tslintOutputFile) {
         StringBuilder outputBuilder = new StringBuilder();
 
         try (final BufferedReader reader = this.getBufferedReaderForFile(tslintOutputFile)) {
@@ -185,4 +680,172 @@ public class EsLintExecutorImpl implements EsLintExecutor {
 
         return "";
     }
+
+    /**
+     * Hands the reports read by the batch threads over to the calling thread. A batch thread waits until its report
+     * has been handled, so that the report is streamed from EsLint without being buffered, and at most one report
+     * per worker is pending.
+     */
+    private static final class ReportHandOff implements EsLintReportHandler {
+        // Queued by a batch thread once all its batches ran
+        private static final PendingReport FINISHED = new PendingReport(null);
+        private final BlockingQueue<PendingReport> queue;
+
+        ReportHandOff(int workers) {
+            this.queue = new ArrayBlockingQueue<>(workers);
+        }
+
+        /**
+         * Called from a batch thread, waits for the calling thread to handle the report.
+         */
+        @Override
+        public void handle(Reader report) throws IOException {
+            PendingReport pending = new PendingReport(report);
+            try {
+                this.queue.put(pending);
+                pending.handled.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while handing over the EsLint report");
+            }
+            if (pending.failure != null) {
+                throw pending.failure;
+            }
+        }
+
+        /**
+         * Called from a batch thread once its task is over, whether it succeeded or not.
+         */
+        void finished() throws InterruptedException {
+            this.queue.put(FINISHED);
+        }
+
+        /**
+         * Handles the reports on the calling thread until the given number of tasks are over.
+         */
+        void drain(int tasks, EsLintReportHandler handler) throws InterruptedException {
+            for (int remaining = tasks; remaining > 0; ) {
+                PendingReport pending = this.queue.take();
+                if (pending == FINISHED) {
+                    remaining--;
+                    continue;
+                }
+                try {
+                    handleReport(handler, pending.report);
+                } catch (IOException e) {
+                    pending.failure = e;
+                } finally {
+                    pending.handled.countDown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the line of the report, JSON.stringify never writing line breaks, so that anything printed after the
+     * report is not read.
+     */
+    private static final class ReportLineReader extends Reader {
+        private final Reader output;
+        private boolean ended;
+
+        ReportLineReader(Reader output) {
+            this.output = output;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (this.ended || length == 0) {
+                return this.ended ? -1 : 0;
+            }
+            int read = this.output.read(buffer, offset, length);
+            for (int i = offset; i < offset + read; i++) {
+                if (buffer[i] == '\n' || buffer[i] == '\r') {
+                    this.ended = true;
+                    return i == offset ? -1 : i - offset;
+                }
+            }
+            if (read < 0) {
+                this.ended = true;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.output.close();
+        }
+    }
+
+    private static final class PendingReport {
+        private final Reader report;
+        private final CountDownLatch handled = new CountDownLatch(1);
+        // Written before the latch is released, read after
+        private IOException failure;
+
+        PendingReport(Reader report) {
+            this.report = report;
+        }
+    }
+
+    /**
+     * Drains the standard error of an EsLint process, which would otherwise block once full, and kills the
+     * process when it runs longer than its timeout.
+     */
+    private static final class ProcessWatchdog extends Thread {
+        private final Process process;
+        private final long timeoutMs;
+        private final StreamConsumer stdErr;
+        private volatile boolean timedOut;
+
+        ProcessWatchdog(Process process, long timeoutMs, StreamConsumer stdErr) {
+            super("eslint-watchdog");
+            this.process = process;
+            this.timeoutMs = timeoutMs;
+            this.stdErr = stdErr;
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Thread drain = new Thread(() -> {
+                try (BufferedReader errors = new BufferedReader(new InputStreamReader(this.process.getErrorStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    //noinspection NestedAssignment
+                    while ((line = errors.readLine()) != null) {
+                        this.stdErr.consumeLine(line);
+                    }
+                } catch (IOException e) {
+                    LOG.debug("Failed to read EsLint errors", e);
+                }
+            }, "eslint-stderr");
+            drain.setDaemon(true);
+            drain.start();
+
+            try {
+                if (!this.process.waitFor(this.timeoutMs, TimeUnit.MILLISECONDS)) {
+                    LOG.error("EsLint timed out after {} ms, killing it", this.timeoutMs);
+                    this.timedOut = true;
+                    this.process.destroyForcibly();
+                }
+                drain.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Names the batch threads and makes sure they never prevent the scanner from exiting.
+     */
+    private static final class BatchThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "eslint-batch-" + this.counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package io.github.sleroy.sonar;
+
+import io.github.sleroy.sonar.api.EsLintExecutor;
+import io.github.sleroy.sonar.api.EsLintReportHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.TempFolder;
+
+import java.util.List;
+
+/**
+ * Delegates the EsLint execution to the implementation matching the configured execution mode. The
+ * process-per-batch executor is used by default, and as a fallback when the daemon cannot be used.
+ */
+public class EsLintExecutorSelector implements EsLintExecutor {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintExecutorSelector.class);
+    private final EsLintExecutor processExecutor;
+    private final EsLintExecutor daemonExecutor;
+
+    public EsLintExecutorSelector(System2 system, TempFolder tempFolder) {
+        this(new EsLintExecutorImpl(system, tempFolder), new EsLintDaemonExecutor(tempFolder));
+    }
+
+    EsLintExecutorSelector(EsLintExecutor processExecutor, EsLintExecutor daemonExecutor) {
+        this.processExecutor = processExecutor;
+        this.daemonExecutor = daemonExecutor;
+    }
+
+    @Override
+    public List<String> execute(EsLintExecutorConfig config, List<String> files, SensorContext ctx) {
+        if (config != null && config.isDaemonMode()) {
+            try {
+                return this.daemonExecutor.execute(config, files, ctx);
+            } catch (EsLintDaemonException e) {
+                LOG.warn("EsLint daemon unavailable, falling back to one EsLint process per batch: {}", e.getMessage());
+                LOG.debug("EsLint daemon failure", e);
+            }
+        }
+        return this.processExecutor.execute(config, files, ctx);
+    }
+
+    @Override
+    public void execute(EsLintExecutorConfig config, List<String> files, SensorContext ctx, EsLintReportHandler handler) {
+        if (config != null && config.isDaemonMode()) {
+            try {
+                this.daemonExecutor.execute(config, files, ctx, handler);
+                return;
+            } catch (EsLintDaemonException e) {
+                LOG.warn("EsLint daemon unavailable, falling back to one EsLint process per batch: {}", e.getMessage());
+                LOG.debug("EsLint daemon failure", e);
+            }
+        }
+        this.processExecutor.execute(config, files, ctx, handler);
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.sleroy.sonar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.config.Configuration;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Skips the files not worth linting before they are sent to EsLint: the files matching the exclusion patterns, the
+ * files above a maximum size, and the minified, bundled or generated files. The latter are detected on a sample of
+ * the beginning and of the end of the file, never on its whole content.
+ */
+public class EsLintFileFilter {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintFileFilter.class);
+
+    // Bytes sampled at the beginning of a file to measure its lines
+    public static final int HEAD_SAMPLE_BYTES = 8192;
+    // Bytes sampled at the end of a file, where bundlers and transpilers write the source map reference
+    public static final int TAIL_SAMPLE_BYTES = 512;
+    // Hand-written code rarely averages more characters per line
+    public static final int MAX_AVERAGE_LINE_LENGTH = 300;
+
+    private static final String[] GENERATED_MARKERS = {"sourceMappingURL=", "webpackBootstrap"};
+
+    private final FilePredicate exclusions;
+    private final long maxSizeBytes;
+    private final boolean skipGenerated;
+
+    private int excludedFiles;
+    private int largeFiles;
+    private int generatedFiles;
+    private long skippedBytes;
+
+    /**
+     * @param exclusions    the files to skip, null to skip none
+     * @param maxSizeBytes  the size above which files are skipped, 0 for no limit
+     * @param skipGenerated true to skip the minified, bundled and generated files
+     */
+    public EsLintFileFilter(FilePredicate exclusions, long maxSizeBytes, boolean skipGenerated) {
+        this.exclusions = exclusions;
+        this.maxSizeBytes = maxSizeBytes;
+        this.skipGenerated = skipGenerated;
+    }
+
+    /**
+     * Creates the filter configured by the settings.
+     */
+    public static EsLintFileFilter fromSettings(Configuration settings, FileSystem fileSystem) {
+        String[] patterns = Arrays.stream(settings.getStringArray(EsLintPlugin.SETTING_ES_LINT_EXCLUSIONS))
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .toArray(String[]::new);
+        FilePredicate exclusions = patterns.length == 0 ? null : fileSystem.predicates().matchesPathPatterns(patterns);
+        long maxSizeBytes = settings.getLong(EsLintPlugin.SETTING_ES_LINT_MAX_FILE_SIZE).orElse(0L) * 1024;
+        boolean skipGenerated = settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_SKIP_GENERATED).orElse(Boolean.FALSE);
+        return new EsLintFileFilter(exclusions, maxSizeBytes, skipGenerated);
+    }
+
+    /**
+     * Tells whether a file must be linted, counting the skipped ones.
+     *
+     * @param file the file
+     * @return false if the file must be skipped
+     */
+    public boolean accept(InputFile file) {
+        if (this.exclusions != null && this.exclusions.apply(file)) {
+            this.excludedFiles++;
+            this.skippedBytes += size(file);
+            return false;
+        }
+        if (this.maxSizeBytes <= 0 && !this.skipGenerated) {
+            return true;
+        }
+
+        long size = size(file);
+        if (this.maxSizeBytes > 0 && size > this.maxSizeBytes) {
+            LOG.debug("Skipping {}, {} bytes is over the maximum size", file, size);
+            this.largeFiles++;
+            this.skippedBytes += size;
+            return false;
+        }
+        if (this.skipGenerated && looksGenerated(file, size)) {
+            LOG.debug("Skipping {}, it looks minified or generated", file);
+            this.generatedFiles++;
+            this.skippedBytes += size;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Logs how many files were skipped and their size.
+     */
+    public void logSummary() {
+        int skipped = this.excludedFiles + this.largeFiles + this.generatedFiles;
+        if (skipped > 0) {
+            LOG.info("Skipping {} JS files ({} KB) before linting: {} excluded, {} too large, {} minified or generated",
+                    skipped, this.skippedBytes / 1024, this.excludedFiles, this.largeFiles, this.generatedFiles);
+        }
+    }
+
+    private static long size(InputFile file) {
+        try {
+            return Files.size(Paths.get(file.uri()));
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Samples the beginning and the end of a file to detect minified code, through the length of its lines, and
+     * bundled or transpiled code, through the markers bundlers and transpilers write.
+     *
+     * @param size the size of the file, used to skip to its end, 0 if unknown in which case the whole file is read
+     */
+    static boolean looksGenerated(InputFile file, long size) {
+        try (InputStream input = file.inputStream()) {
+            byte[] head = new byte[HEAD_SAMPLE_BYTES];
+            head = Arrays.copyOf(head, IOUtils.read(input, head));
+            skip(input, size - head.length - TAIL_SAMPLE_BYTES);
+            byte[] tail = readTail(input, TAIL_SAMPLE_BYTES);
+
+            if (averageLineLength(head) > MAX_AVERAGE_LINE_LENGTH) {
+                return true;
+            }
+            String sample = new String(head, StandardCharsets.ISO_8859_1) + new String(tail, StandardCharsets.ISO_8859_1);
+            for (String marker : GENERATED_MARKERS) {
+                if (sample.contains(marker)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            LOG.debug("Cannot sample {}, it will be linted: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Skips bytes without reading them, file streams seeking instead. Stops early when the stream cannot skip any
+     * more, the rest being read by {@link #readTail(InputStream, int)}.
+     */
+    private static void skip(InputStream input, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = input.skip(remaining);
+            if (skipped <= 0) {
+                return;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * Reads the stream to its end, keeping its last bytes only.
+     */
+    private static byte[] readTail(InputStream input, int length) throws IOException {
+        byte[] buffer = new byte[2 * length];
+        int filled = 0;
+        int read;
+        //noinspection NestedAssignment
+        while ((read = input.read(buffer, filled, buffer.length - filled)) >= 0) {
+            filled += read;
+            if (filled == buffer.length) {
+                System.arraycopy(buffer, length, buffer, 0, length);
+                filled = length;
+            }
+        }
+        return Arrays.copyOfRange(buffer, Math.max(0, filled - length), filled);
+    }
+
+    /**
+     * Returns the average length of the complete lines of the sample, or of the whole sample if it has no line break.
+     */
+    static int averageLineLength(byte[] sample) {
+        int lines = 0;
+        int lastBreak = -1;
+        for (int i = 0; i < sample.length; i++) {
+            if (sample[i] == '\n') {
+                lines++;
+                lastBreak = i;
+            }
+        }
+        return lines == 0 ? sample.length : (lastBreak + 1) / lines;
+    }
+}
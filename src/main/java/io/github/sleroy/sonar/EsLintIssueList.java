@@ -0,0 +1,97 @@
+package io.github.sleroy.sonar;
+
+import io.github.sleroy.sonar.model.EsLintIssue;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The issues of a file, stored by column rather than as one object per issue: the positions, severities and rule
+ * numbers in parallel int arrays and the messages, shared through an {@link EsLintStringTable}, in a reference array.
+ * An issue takes 28 bytes, against about 60 for an {@link EsLintIssue} and its slot in an ArrayList.
+ * <p>
+ * Reading an issue creates a new {@link EsLintIssue} from the columns, so that changing it does not change the list.
+ * Issues can only be appended.
+ */
+public class EsLintIssueList extends AbstractList<EsLintIssue> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int NO_RULE = -1;
+
+    private final EsLintStringTable strings;
+    private int size;
+    private int[] lines;
+    private int[] columns;
+    private int[] endLines;
+    private int[] endColumns;
+    private int[] severities;
+    private int[] rules;
+    private String[] messages;
+
+    /**
+     * @param strings numbers the rule ids and shares the messages
+     */
+    public EsLintIssueList(EsLintStringTable strings) {
+        this.strings = strings;
+        this.allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public EsLintIssue get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        EsLintIssue issue = new EsLintIssue();
+        issue.setLine(this.lines[index]);
+        issue.setColumn(this.columns[index]);
+        issue.setEndLine(this.endLines[index]);
+        issue.setEndColumn(this.endColumns[index]);
+        issue.setSeverity(this.severities[index]);
+        issue.setRuleId(this.rules[index] == NO_RULE ? null : this.strings.ruleId(this.rules[index]));
+        issue.setMessage(this.messages[index]);
+        return issue;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void add(int index, EsLintIssue issue) {
+        if (index != this.size) {
+            throw new UnsupportedOperationException("Issues can only be appended");
+        }
+        if (this.size == this.lines.length) {
+            this.allocate(this.size + (this.size >> 1) + 1);
+        }
+        this.lines[index] = issue.getLine();
+        this.columns[index] = issue.getColumn();
+        this.endLines[index] = issue.getEndLine();
+        this.endColumns[index] = issue.getEndColumn();
+        this.severities[index] = issue.getSeverity();
+        this.rules[index] = issue.getRuleId() == null ? NO_RULE : this.strings.ruleIndex(issue.getRuleId());
+        this.messages[index] = this.strings.internMessage(issue.getMessage());
+        this.size++;
+        this.modCount++;
+    }
+
+    /**
+     * Releases the room allocated beyond the issues, once the file is complete.
+     */
+    public void trimToSize() {
+        if (this.size < this.lines.length) {
+            this.allocate(this.size);
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.lines = this.lines == null ? new int[capacity] : Arrays.copyOf(this.lines, capacity);
+        this.columns = this.columns == null ? new int[capacity] : Arrays.copyOf(this.columns, capacity);
+        this.endLines = this.endLines == null ? new int[capacity] : Arrays.copyOf(this.endLines, capacity);
+        this.endColumns = this.endColumns == null ? new int[capacity] : Arrays.copyOf(this.endColumns, capacity);
+        this.severities = this.severities == null ? new int[capacity] : Arrays.copyOf(this.severities, capacity);
+        this.rules = this.rules == null ? new int[capacity] : Arrays.copyOf(this.rules, capacity);
+        this.messages = this.messages == null ? new String[capacity] : Arrays.copyOf(this.messages, capacity);
+    }
+}
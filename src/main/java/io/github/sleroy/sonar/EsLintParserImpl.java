@@ -10,13 +10,15 @@
  */
 package io.github.sleroy.sonar;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 
@@ -24,57 +26,174 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.ScannerSide;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import io.github.sleroy.sonar.api.EsLintIssueConsumer;
 import io.github.sleroy.sonar.api.EsLintParser;
-import io.github.sleroy.sonar.model.EsLintFile;
 import io.github.sleroy.sonar.model.EsLintIssue;
 
 @ScannerSide
 public class EsLintParserImpl implements EsLintParser {
     private static final Logger	 LOG		 = LoggerFactory.getLogger(EsLintParserImpl.class);
-    private static final Pattern REPLACE_PATTERN = Pattern.compile("\\]\\[");
-
-    private static String getFixedUpOutput(final String toParse) {
-	if (toParse.contains("][")) {
-	    // Pre 4.0.0-versions of TsLint return nonsense for its JSON output
-	    // when faced with multiple files so we need to fix it up before we
-	    // do anything else
-	    return EsLintParserImpl.REPLACE_PATTERN.matcher(toParse).replaceAll(",");
-	}
 
-	return toParse;
+    // Shared by all the reports of the analysis, issues of the same rule
+    // repeating the same strings
+    private final EsLintStringTable strings;
+
+    public EsLintParserImpl() {
+	this(new EsLintStringTable());
+    }
+
+    EsLintParserImpl(final EsLintStringTable strings) {
+	this.strings = strings;
     }
 
     @Override
     public @Nonnull Map<String, List<EsLintIssue>> parse(final List<String> toParse) {
-	final GsonBuilder builder = new GsonBuilder();
-	final Gson gson = builder.create();
+	// Remap by filename, the issues of each file being stored by column as
+	// they may be kept for millions of issues
+	final Map<String, EsLintIssueList> toIssues = new HashMap<>();
 
-	final List<EsLintFile> allScannedFiles = new ArrayList<>(100);
+	final EsLintIssueConsumer collector = new EsLintIssueConsumer() {
+	    @Override
+	    public void accept(final String filePath, final EsLintIssue issue) {
+		toIssues.computeIfAbsent(filePath, k -> new EsLintIssueList(strings)).add(issue);
+	    }
+
+	    @Override
+	    public void fileCompleted(final String filePath) {
+		toIssues.computeIfAbsent(filePath, k -> new EsLintIssueList(strings)).trimToSize();
+	    }
+	};
 
 	for (final String batch : toParse) {
-	    final EsLintFile[] batchIssues = gson.fromJson(EsLintParserImpl.getFixedUpOutput(batch),
-		    EsLintFile[].class);
+	    try {
+		this.parse(new StringReader(batch), collector);
+	    } catch (final IOException e) {
+		throw new JsonSyntaxException(e);
+	    }
+	}
+
+	return Collections.unmodifiableMap(toIssues);
+    }
 
-	    if (batchIssues == null) {
+    @Override
+    public void parse(final Reader report, final EsLintIssueConsumer consumer) throws IOException {
+	final JsonReader reader = new JsonReader(report);
+	// Pre 4.0.0-versions of TsLint return nonsense for its JSON output when
+	// faced with multiple files, one array per file written back to back,
+	// which only a lenient reader accepts
+	reader.setLenient(true);
+	try {
+	    reader.peek();
+	} catch (final EOFException e) {
+	    // EsLint produced no output at all
+	    return;
+	}
+
+	while (reader.peek() != JsonToken.END_DOCUMENT) {
+	    if (reader.peek() == JsonToken.NULL) {
+		reader.nextNull();
 		continue;
 	    }
-	    allScannedFiles.addAll(Arrays.asList(batchIssues));
+	    reader.beginArray();
+	    while (reader.hasNext()) {
+		this.readFile(reader, consumer);
+	    }
+	    reader.endArray();
 	}
+    }
+
+    /**
+     * Reads the result of a file, only binding the members the sensor needs. Everything else, and
+     * especially the file {@code source} EsLint attaches to every file with problems, is skipped at
+     * the token level so that it is never allocated.
+     */
+    private void readFile(final JsonReader reader, final EsLintIssueConsumer consumer) throws IOException {
+	String filePath = null;
+	List<EsLintIssue> pendingIssues = null;
+
+	reader.beginObject();
+	while (reader.hasNext()) {
+	    switch (reader.nextName()) {
+	    case "filePath":
+		filePath = reader.nextString().replace('\\', '/');
+		break;
+	    case "messages":
+		reader.beginArray();
+		while (reader.hasNext()) {
+		    final EsLintIssue issue = this.readIssue(reader);
+		    if (filePath != null) {
+			consumer.accept(filePath, issue);
+		    } else {
+			// The EsLint formatter writes the path first, but do not rely on it
+			if (pendingIssues == null) {
+			    pendingIssues = new ArrayList<>();
+			}
+			pendingIssues.add(issue);
+		    }
+		}
+		reader.endArray();
+		break;
+	    default:
+		reader.skipValue();
+		break;
+	    }
+	}
+	reader.endObject();
+
+	if (filePath == null) {
+	    return;
+	}
+	if (pendingIssues != null) {
+	    for (final EsLintIssue issue : pendingIssues) {
+		consumer.accept(filePath, issue);
+	    }
+	}
+	consumer.fileCompleted(filePath);
+    }
 
-	// Remap by filename
-	final Map<String, List<EsLintFile>> fileBag = allScannedFiles
-		.stream().collect(Collectors.groupingBy(f -> f.getFilePath().replace('\\', '/')));
+    private EsLintIssue readIssue(final JsonReader reader) throws IOException {
+	final EsLintIssue issue = new EsLintIssue();
 
-	// Reduce all issues
-	final Map<String, List<EsLintIssue>> toIssues = fileBag.entrySet().stream()
-		.collect(Collectors.toMap(
-			Entry::getKey, v -> v.getValue().stream().map(EsLintFile::getMessages)
-				.flatMap(List::stream)
-				.collect(Collectors.toList())));
+	reader.beginObject();
+	while (reader.hasNext()) {
+	    final String name = reader.nextName();
+	    if (reader.peek() == JsonToken.NULL) {
+		reader.nextNull();
+		continue;
+	    }
+	    switch (name) {
+	    case "ruleId":
+		issue.setRuleId(this.strings.internRuleId(reader.nextString()));
+		break;
+	    case "message":
+		issue.setMessage(this.strings.internMessage(reader.nextString()));
+		break;
+	    case "severity":
+		issue.setSeverity(reader.nextInt());
+		break;
+	    case "line":
+		issue.setLine(reader.nextInt());
+		break;
+	    case "column":
+		issue.setColumn(reader.nextInt());
+		break;
+	    case "endLine":
+		issue.setEndLine(reader.nextInt());
+		break;
+	    case "endColumn":
+		issue.setEndColumn(reader.nextInt());
+		break;
+	    default:
+		reader.skipValue();
+		break;
+	    }
+	}
+	reader.endObject();
 
-	return toIssues;
+	return issue;
     }
-}
\ No newline at end of file
+}
@@ -35,6 +35,31 @@ import org.sonar.api.PropertyType;
                 project = true,
                 global = true
         ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_NODE_PATH,
+                defaultValue = EsLintExecutorConfig.NODE_EXECUTABLE,
+                name = "Path to Node",
+                description = "Path to the Node executable running ESLint, looked up in the PATH by default",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_NODE_OPTIONS,
+                defaultValue = "",
+                name = "Node options",
+                description = "Options passed to Node before the ESLint script, separated by spaces",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_NODE_MAX_HEAP,
+                defaultValue = "-1",
+                type = PropertyType.INTEGER,
+                name = "Node heap size (MB)",
+                description = "Value of --max-old-space-size for the Node processes, -1 to keep the default of Node, 0 to share the physical memory left by the scanner between the concurrent Node processes when their share is above the default of Node",
+                project = true,
+                global = true
+        ),
         @Property(
                 key = EsLintPlugin.SETTING_ES_RULE_CONFIGS,
                 name = "ESLint Rule-Collections",
@@ -81,6 +106,181 @@ import org.sonar.api.PropertyType;
                 description = "Maximum time to wait for ESLint execution to finish before aborting (in milliseconds)",
                 project = true,
                 global = false
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_ADAPTIVE_TIMEOUT,
+                type = PropertyType.BOOLEAN,
+                defaultValue = "false",
+                name = "Adaptive ESLint timeouts",
+                description = "Lower the timeout of every ESLint batch to a multiple of the time the batches completed so far took for the same amount of code, so that stuck batches are killed early",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_GLOBAL_TIMEOUT,
+                defaultValue = "0",
+                type = PropertyType.INTEGER,
+                name = "Max ESLint analysis time (milliseconds)",
+                description = "Maximum time ESLint may run for the whole analysis, the batches still pending are skipped once it is reached, 0 for no limit",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_PARALLELISM,
+                defaultValue = "0",
+                type = PropertyType.INTEGER,
+                name = "ESLint parallelism",
+                description = "Number of ESLint batches executed concurrently, 0 to use the number of available processors",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_MAX_COMMAND_LENGTH,
+                defaultValue = "0",
+                type = PropertyType.INTEGER,
+                name = "Max ESLint command line length",
+                description = "Maximum length of an ESLint command line, files being split into batches accordingly, 0 to use 8191 on Windows and 131072 elsewhere",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_EXECUTION_MODE,
+                defaultValue = EsLintExecutorConfig.EXECUTION_MODE_PROCESS,
+                type = PropertyType.SINGLE_SELECT_LIST,
+                options = {
+                        EsLintExecutorConfig.EXECUTION_MODE_PROCESS,
+                        EsLintExecutorConfig.EXECUTION_MODE_DAEMON,
+                        EsLintExecutorConfig.EXECUTION_MODE_POOL
+                },
+                name = "ESLint execution mode",
+                description = "'process' runs one ESLint process per batch of files, 'daemon' streams the files to a single long-lived ESLint process, 'pool' to as many long-lived ESLint processes as the ESLint parallelism",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_WORKER_MAX_FILES,
+                defaultValue = "5000",
+                type = PropertyType.INTEGER,
+                name = "ESLint worker recycling threshold (files)",
+                description = "Number of files after which a long-lived ESLint process is restarted, 0 to never restart it",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_WORKER_MAX_HEAP,
+                defaultValue = "1024",
+                type = PropertyType.INTEGER,
+                name = "ESLint worker recycling threshold (heap MB)",
+                description = "Heap size above which a long-lived ESLint process is restarted, 0 to never restart it",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_STREAMING_PARSER,
+                type = PropertyType.BOOLEAN,
+                defaultValue = "false",
+                name = "Stream ESLint reports",
+                description = "Parse the ESLint report of each batch incrementally as soon as the batch completes and save its issues right away, instead of loading all the reports in memory",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_READ_STDOUT,
+                type = PropertyType.BOOLEAN,
+                defaultValue = "false",
+                name = "Read ESLint reports from stdout",
+                description = "With the streaming parser, parse the ESLint reports straight from the standard output of ESLint instead of writing them to temporary files",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY,
+                type = PropertyType.BOOLEAN,
+                defaultValue = "false",
+                name = "Only lint changed files",
+                description = "In pull request analyses, only run ESLint on the files added or changed since the previous analysis. Ignored in other analyses, where every file is linted",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_EXCLUSIONS,
+                defaultValue = "",
+                name = "Files not linted",
+                description = "Comma-separated path patterns of the JS files not sent to ESLint, such as **/vendor/**,**/*.min.js",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_MAX_FILE_SIZE,
+                defaultValue = "0",
+                type = PropertyType.INTEGER,
+                name = "Maximum file size (KB)",
+                description = "Size above which JS files are not sent to ESLint, 0 for no limit",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_SKIP_GENERATED,
+                type = PropertyType.BOOLEAN,
+                defaultValue = "false",
+                name = "Skip minified and generated files",
+                description = "Do not send to ESLint the JS files that look minified, bundled or generated: very long lines or a source map reference",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_CACHE,
+                type = PropertyType.BOOLEAN,
+                defaultValue = "false",
+                name = "Enable the ESLint cache",
+                description = "Run ESLint with --cache so that it only lints the files that changed since the previous analysis",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_CACHE_LOCATION,
+                defaultValue = "",
+                type = PropertyType.STRING,
+                name = "ESLint cache directory",
+                description = "Directory of the ESLint cache files, relative to the project base directory, defaults to node_modules/.cache/sonar-eslint/eslintcache",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_CACHE_STRATEGY,
+                defaultValue = EsLintExecutorConfig.CACHE_STRATEGY_CONTENT,
+                type = PropertyType.STRING,
+                name = "ESLint cache strategy",
+                description = "Strategy ESLint uses to detect changed files, 'content' survives fresh checkouts, 'metadata' relies on modification times, empty for ESLint versions older than 7.21 which do not support --cache-strategy",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_ENABLED,
+                type = PropertyType.BOOLEAN,
+                defaultValue = "false",
+                name = "Cache ESLint results",
+                description = "Keep the issues of every file in a persistent cache so that files which did not change since they were last linted, with the same ESLint version, configuration, plugins and rules, are not linted again. Clear the cache by hand after changing nested .eslintrc files or local files extended by the configuration",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_PATH,
+                defaultValue = "",
+                type = PropertyType.STRING,
+                name = "ESLint result cache directory",
+                description = "Directory of the ESLint result cache, relative to the project base directory, defaults to eslint-results in the scanner working directory",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_MAX_SIZE,
+                defaultValue = "100",
+                type = PropertyType.INTEGER,
+                name = "ESLint result cache size (MB)",
+                description = "Size above which the least recently used entries of the ESLint result cache are evicted",
+                project = true,
+                global = true
         )
 })
 public class EsLintPlugin implements Plugin {
@@ -89,8 +289,30 @@ public class EsLintPlugin implements Plugin {
     public static final String SETTING_ES_LINT_CONFIG_PATH = "sonar.eslint.eslintconfigpath";
     public static final String SETTING_ES_LINT_TIMEOUT = "sonar.eslint.eslinttimeout";
     public static final String SETTING_ES_LINT_RULES_DIR = "sonar.eslint.eslintrulesdir";
+    public static final String SETTING_ES_LINT_NODE_PATH = "sonar.eslint.nodepath";
+    public static final String SETTING_ES_LINT_NODE_OPTIONS = "sonar.eslint.nodeoptions";
+    public static final String SETTING_ES_LINT_NODE_MAX_HEAP = "sonar.eslint.nodemaxheap";
     public static final String SETTING_ES_RULE_CONFIGS = "sonar.eslint.ruleconfigs";
     public static final String SETTING_ES_LINT_ENABLE_NO_INLINE_CFG = "sonar.eslint.enablenoinlinecfg";
+    public static final String SETTING_ES_LINT_ADAPTIVE_TIMEOUT = "sonar.eslint.adaptivetimeout";
+    public static final String SETTING_ES_LINT_GLOBAL_TIMEOUT = "sonar.eslint.globaltimeout";
+    public static final String SETTING_ES_LINT_PARALLELISM = "sonar.eslint.parallelism";
+    public static final String SETTING_ES_LINT_MAX_COMMAND_LENGTH = "sonar.eslint.maxcommandlength";
+    public static final String SETTING_ES_LINT_EXECUTION_MODE = "sonar.eslint.executionmode";
+    public static final String SETTING_ES_LINT_WORKER_MAX_FILES = "sonar.eslint.worker.maxfiles";
+    public static final String SETTING_ES_LINT_WORKER_MAX_HEAP = "sonar.eslint.worker.maxheap";
+    public static final String SETTING_ES_LINT_STREAMING_PARSER = "sonar.eslint.streamingparser";
+    public static final String SETTING_ES_LINT_READ_STDOUT = "sonar.eslint.readstdout";
+    public static final String SETTING_ES_LINT_CHANGED_FILES_ONLY = "sonar.eslint.changedFilesOnly";
+    public static final String SETTING_ES_LINT_EXCLUSIONS = "sonar.eslint.exclusions";
+    public static final String SETTING_ES_LINT_MAX_FILE_SIZE = "sonar.eslint.maxfilesize";
+    public static final String SETTING_ES_LINT_SKIP_GENERATED = "sonar.eslint.skipgenerated";
+    public static final String SETTING_ES_LINT_CACHE = "sonar.eslint.eslintcache";
+    public static final String SETTING_ES_LINT_CACHE_LOCATION = "sonar.eslint.eslintcache.location";
+    public static final String SETTING_ES_LINT_CACHE_STRATEGY = "sonar.eslint.eslintcache.strategy";
+    public static final String SETTING_ES_LINT_RESULT_CACHE_ENABLED = "sonar.eslint.resultcache.enabled";
+    public static final String SETTING_ES_LINT_RESULT_CACHE_PATH = "sonar.eslint.resultcache.path";
+    public static final String SETTING_ES_LINT_RESULT_CACHE_MAX_SIZE = "sonar.eslint.resultcache.maxsize";
 
 
     @Override
@@ -105,7 +327,7 @@ public class EsLintPlugin implements Plugin {
 
         // Additional services to be DI'd into the above
         ctx.addExtension(PathResolverImpl.class);
-        ctx.addExtension(EsLintExecutorImpl.class);
+        ctx.addExtension(EsLintExecutorSelector.class);
         ctx.addExtension(EsLintParserImpl.class);
 
     }
@@ -0,0 +1,348 @@
+package io.github.sleroy.sonar;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import io.github.sleroy.sonar.model.EsLintIssue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A persistent cache of the issues EsLint found per file. Entries are keyed by the path and the content of the file
+ * and by a fingerprint of everything else that may change the EsLint result: the EsLint version, its configuration
+ * file, the versions of the installed EsLint plugins and shareable configurations, the custom rules and the plugin
+ * settings. The least recently used entries are evicted once the cache grows beyond its maximum size.
+ * <p>
+ * Configuration files the fingerprint does not cover, such as nested .eslintrc files or local files extended by the
+ * configuration, are not detected: the cache must be cleared by hand when they change.
+ */
+public class EsLintResultCache {
+    public static final String DEFAULT_CACHE_DIRECTORY = "eslint-results";
+    public static final int DEFAULT_MAX_SIZE_MB = 100;
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintResultCache.class);
+    private static final String ENTRY_SUFFIX = ".json";
+    private static final String NODE_MODULES = "node_modules";
+    // Bumped whenever the format of the entries or the way issues are produced changes
+    private static final String FORMAT_VERSION = "3";
+    private static final Type ISSUES_TYPE = new TypeToken<List<EsLintIssue>>() {
+    }.getType();
+
+    private final Path directory;
+    private final URI baseDir;
+    private final long maxSizeBytes;
+    private final byte[] fingerprint;
+    private final Gson gson = new Gson();
+
+    private int hits;
+    private int misses;
+
+    /**
+     * Creates a cache.
+     *
+     * @param directory    the directory holding the entries, created if needed
+     * @param maxSizeBytes the size above which the least recently used entries are evicted
+     * @param fingerprint  the fingerprint of the EsLint installation and configuration
+     */
+    public EsLintResultCache(Path directory, long maxSizeBytes, String fingerprint) {
+        this(directory, null, maxSizeBytes, fingerprint);
+    }
+
+    /**
+     * Creates a cache whose entries can be shared by checkouts of the project in different directories.
+     *
+     * @param directory    the directory holding the entries, created if needed
+     * @param baseDir      the project base directory, the files being keyed by their path relative to it
+     * @param maxSizeBytes the size above which the least recently used entries are evicted
+     * @param fingerprint  the fingerprint of the EsLint installation and configuration
+     */
+    public EsLintResultCache(Path directory, URI baseDir, long maxSizeBytes, String fingerprint) {
+        this.directory = directory;
+        this.baseDir = baseDir;
+        this.maxSizeBytes = maxSizeBytes;
+        this.fingerprint = fingerprint.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates the cache configured by the settings.
+     *
+     * @param ctx    the sensor context
+     * @param config the EsLint configuration
+     * @return the cache, or null if it is disabled or cannot be used
+     */
+    public static EsLintResultCache fromSettings(SensorContext ctx, EsLintExecutorConfig config) {
+        if (!ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_ENABLED).orElse(Boolean.FALSE)) {
+            return null;
+        }
+
+        File directory = ctx.config().get(EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_PATH)
+                .filter(path -> !path.trim().isEmpty())
+                .map(File::new)
+                .map(path -> path.isAbsolute() ? path : new File(ctx.fileSystem().baseDir(), path.getPath()))
+                .orElseGet(() -> new File(EsLintExecutorConfigFactory.persistentDirectory(ctx), DEFAULT_CACHE_DIRECTORY));
+        long maxSizeBytes = ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_MAX_SIZE).orElse(DEFAULT_MAX_SIZE_MB) * 1024L * 1024L;
+
+        try {
+            Files.createDirectories(directory.toPath());
+            return new EsLintResultCache(directory.toPath(), ctx.fileSystem().baseDir().toURI(), maxSizeBytes, computeFingerprint(ctx, config));
+        } catch (IOException e) {
+            LOG.warn("EsLint result cache disabled, it cannot be initialised in {}: {}", directory, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Fingerprints the EsLint installation, its configuration and the plugin settings that change its output.
+     */
+    static String computeFingerprint(SensorContext ctx, EsLintExecutorConfig config) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, FORMAT_VERSION);
+        update(digest, config.getPathToEsLint());
+        // eslint.js lives in the bin folder of its package, itself in a node_modules folder, unless a shallow path
+        // such as an executable on the PATH is configured, in which case the path alone is fingerprinted
+        Path esLintScript = new File(config.getPathToEsLint()).getAbsoluteFile().toPath();
+        Path esLintPackage = ancestor(esLintScript, 2);
+        update(digest, readEsLintVersion(esLintScript, esLintPackage));
+
+        // The plugins and shareable configurations the configuration may load, wherever Node may resolve them from
+        Set<Path> nodeModules = new LinkedHashSet<>();
+        if (esLintPackage != null && esLintPackage.getParent() != null) {
+            nodeModules.add(esLintPackage.getParent().normalize());
+        }
+        nodeModules.add(ctx.fileSystem().baseDir().toPath().resolve(NODE_MODULES).toAbsolutePath().normalize());
+        for (Path directory : nodeModules) {
+            updateEsLintPackages(digest, directory);
+        }
+        update(digest, String.valueOf(ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_ENABLE_NO_INLINE_CFG).orElse(Boolean.FALSE)));
+
+        update(digest, config.getConfigFile());
+        digest.update(Files.readAllBytes(new File(config.getConfigFile()).toPath()));
+
+        String rulesDir = config.getRulesDir();
+        if (rulesDir != null && !rulesDir.isEmpty() && new File(rulesDir).isDirectory()) {
+            List<Path> rules;
+            try (Stream<Path> walk = Files.walk(new File(rulesDir).toPath())) {
+                rules = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for (Path rule : rules) {
+                update(digest, rule.toString());
+                digest.update(Files.readAllBytes(rule));
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Returns the ancestor of a path, null if the path is not that deep.
+     */
+    private static Path ancestor(Path path, int levels) {
+        Path ancestor = path;
+        for (int i = 0; i < levels && ancestor != null; i++) {
+            ancestor = ancestor.getParent();
+        }
+        return ancestor;
+    }
+
+    /**
+     * Reads the version of EsLint from the package.json of its package.
+     *
+     * @param esLintPackage the package directory, null if unknown
+     */
+    private static String readEsLintVersion(Path esLintScript, Path esLintPackage) {
+        String version = esLintPackage == null ? null : readPackageVersion(esLintPackage);
+        // Fall back to the date of the EsLint script, so that an upgrade still invalidates the cache
+        return version != null ? version : String.valueOf(esLintScript.toFile().lastModified());
+    }
+
+    /**
+     * Fingerprints the names and versions of the EsLint plugins and shareable configurations installed in a
+     * node_modules directory, scoped packages included.
+     */
+    private static void updateEsLintPackages(MessageDigest digest, Path nodeModules) throws IOException {
+        if (!Files.isDirectory(nodeModules)) {
+            return;
+        }
+        List<Path> packages = new ArrayList<>();
+        try (Stream<Path> list = Files.list(nodeModules)) {
+            for (Path entry : (Iterable<Path>) list.sorted()::iterator) {
+                String name = entry.getFileName().toString();
+                if (name.startsWith("@") && Files.isDirectory(entry)) {
+                    try (Stream<Path> scoped = Files.list(entry)) {
+                        scoped.filter(EsLintResultCache::isEsLintPackage).sorted().forEach(packages::add);
+                    }
+                } else if (isEsLintPackage(entry)) {
+                    packages.add(entry);
+                }
+            }
+        }
+        for (Path esLintPackage : packages) {
+            update(digest, nodeModules.relativize(esLintPackage).toString());
+            update(digest, readPackageVersion(esLintPackage));
+        }
+    }
+
+    private static boolean isEsLintPackage(Path entry) {
+        String name = entry.getFileName().toString();
+        return name.startsWith("eslint-plugin") || name.startsWith("eslint-config");
+    }
+
+    private static String readPackageVersion(Path packageDirectory) {
+        Path packageJson = packageDirectory.resolve("package.json");
+        try (Reader reader = Files.newBufferedReader(packageJson, StandardCharsets.UTF_8)) {
+            JsonElement version = new JsonParser().parse(reader).getAsJsonObject().get("version");
+            if (version != null) {
+                return version.getAsString();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Cannot read the package version from {}: {}", packageJson, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Computes the key of a file from its path and its content, EsLint configurations applying to paths.
+     *
+     * @param file the file
+     * @return the key
+     * @throws IOException if the file cannot be read
+     */
+    public String key(InputFile file) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(this.fingerprint);
+        update(digest, this.baseDir == null ? file.uri().toString() : this.baseDir.relativize(file.uri()).getPath());
+        byte[] buffer = new byte[8192];
+        try (InputStream content = file.inputStream()) {
+            int read;
+            //noinspection NestedAssignment
+            while ((read = content.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Returns the cached issues of a file and marks the entry as recently used.
+     *
+     * @param key the key of the file
+     * @return the issues, or null if the file is not cached
+     */
+    public List<EsLintIssue> get(String key) {
+        Path entry = this.directory.resolve(key + ENTRY_SUFFIX);
+        if (!Files.isRegularFile(entry)) {
+            this.misses++;
+            return null;
+        }
+
+        try (Reader reader = Files.newBufferedReader(entry, StandardCharsets.UTF_8)) {
+            List<EsLintIssue> issues = this.gson.fromJson(reader, ISSUES_TYPE);
+            if (!entry.toFile().setLastModified(System.currentTimeMillis())) {
+                LOG.debug("Cannot touch EsLint cache entry {}", entry);
+            }
+            this.hits++;
+            return issues == null ? new ArrayList<>() : issues;
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Ignoring unreadable EsLint cache entry {}: {}", entry, e.getMessage());
+            this.misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Stores the issues of a file.
+     *
+     * @param key    the key of the file
+     * @param issues the issues, possibly empty
+     */
+    public void put(String key, List<EsLintIssue> issues) {
+        Path entry = this.directory.resolve(key + ENTRY_SUFFIX);
+        try {
+            // Written aside then moved, so that a concurrent analysis never reads a partial entry
+            Path temp = Files.createTempFile(this.directory, key, ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                this.gson.toJson(issues, ISSUES_TYPE, writer);
+            }
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.debug("Cannot write EsLint cache entry {}: {}", entry, e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits its maximum size, and logs the hit ratio.
+     */
+    public void evict() {
+        LOG.info("EsLint result cache: {} hits, {} misses", this.hits, this.misses);
+
+        List<File> entries;
+        try (Stream<Path> list = Files.list(this.directory)) {
+            entries = list.map(Path::toFile).filter(f -> f.getName().endsWith(ENTRY_SUFFIX)).collect(Collectors.toList());
+        } catch (IOException e) {
+            LOG.debug("Cannot list EsLint cache entries: {}", e.getMessage());
+            return;
+        }
+
+        long size = entries.stream().mapToLong(File::length).sum();
+        if (size <= this.maxSizeBytes) {
+            return;
+        }
+
+        entries.sort(Comparator.comparingLong(File::lastModified));
+        int evicted = 0;
+        for (File entry : entries) {
+            if (size <= this.maxSizeBytes) {
+                break;
+            }
+            long length = entry.length();
+            if (entry.delete()) {
+                size -= length;
+                evicted++;
+            }
+        }
+        LOG.debug("Evicted {} EsLint cache entries", evicted);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
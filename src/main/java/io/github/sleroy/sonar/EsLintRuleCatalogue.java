@@ -0,0 +1,108 @@
+package io.github.sleroy.sonar;
+
+import io.github.sleroy.sonar.model.EsLintRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.config.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ESLint rules known to the plugin, parsed once per process and shared by the rules definition and the rule
+ * profile. The core rules are read on first use from the {@link EsLintRuleIndex} compiled by the build; the custom rule
+ * configurations are parsed once per distinct content.
+ */
+public final class EsLintRuleCatalogue {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintRuleCatalogue.class);
+    @SuppressWarnings("HardcodedFileSeparator")
+    private static final String CORE_RULES_CONFIG_RESOURCE_PATH = "/eslint/eslint-rules.properties";
+    // Configurations edited over the life of a server are forgotten rather than piling up
+    private static final int MAX_CACHED_CONFIGS = 64;
+
+    private static final Map<String, List<EsLintRule>> CUSTOM_RULES = new ConcurrentHashMap<>();
+
+    private EsLintRuleCatalogue() {
+    }
+
+    /**
+     * Initialised on first access, the class loader guaranteeing it is done once.
+     */
+    private static final class CoreRules {
+        private static final List<EsLintRule> RULES;
+
+        static {
+            List<EsLintRule> rules = readIndex();
+            if (rules == null) {
+                rules = new ArrayList<>(2048);
+                InputStream coreRulesStream = EsLintRuleCatalogue.class.getResourceAsStream(CORE_RULES_CONFIG_RESOURCE_PATH);
+                EsRulesDefinition.loadRules(coreRulesStream, rules);
+            }
+            RULES = Collections.unmodifiableList(rules);
+        }
+
+        /**
+         * Reads the index compiled by the build, missing when the plugin runs from an IDE.
+         */
+        private static List<EsLintRule> readIndex() {
+            InputStream index = EsLintRuleCatalogue.class.getResourceAsStream(EsLintRuleIndex.RESOURCE_PATH);
+            if (index == null) {
+                return null;
+            }
+            try (InputStream in = index) {
+                return EsLintRuleIndex.read(in);
+            } catch (IOException e) {
+                LOG.warn("Ignoring the EsLint rule index, the rules are read from their properties: {}", e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns the ESLint core rules and the rules of the plugins bundled with the plugin.
+     *
+     * @return the rules, sorted by key
+     */
+    public static List<EsLintRule> coreRules() {
+        return CoreRules.RULES;
+    }
+
+    /**
+     * Returns the custom rules configured in the settings.
+     *
+     * @param settings the settings, null for none
+     * @return the rules, sorted by key
+     */
+    public static List<EsLintRule> customRules(Configuration settings) {
+        if (settings == null) {
+            return Collections.emptyList();
+        }
+
+        List<EsLintRule> rules = new ArrayList<>();
+        for (String cfgKey : settings.getStringArray(EsLintPlugin.SETTING_ES_RULE_CONFIGS)) {
+            Optional<String> rulesConfig = settings.get(cfgKey);
+            rulesConfig.ifPresent(config -> rules.addAll(parse(config)));
+        }
+        rules.sort((EsLintRule r1, EsLintRule r2) -> r1.getKey().compareTo(r2.getKey()));
+        return Collections.unmodifiableList(rules);
+    }
+
+    private static List<EsLintRule> parse(String config) {
+        if (CUSTOM_RULES.size() >= MAX_CACHED_CONFIGS && !CUSTOM_RULES.containsKey(config)) {
+            CUSTOM_RULES.clear();
+        }
+        return CUSTOM_RULES.computeIfAbsent(config, content -> {
+            List<EsLintRule> rules = new ArrayList<>();
+            EsRulesDefinition.loadRules(new ByteArrayInputStream(content.getBytes(Charset.defaultCharset())), rules);
+            return Collections.unmodifiableList(rules);
+        });
+    }
+}
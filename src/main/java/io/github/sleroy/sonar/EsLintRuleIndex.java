@@ -0,0 +1,149 @@
+package io.github.sleroy.sonar;
+
+import io.github.sleroy.sonar.model.EsLintRule;
+import org.sonar.api.server.debt.DebtRemediationFunction.Type;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled form of eslint-rules.properties, generated by the build next to it, so that the plugin loads its rules
+ * without parsing the properties. The rules are stored already sorted and with their attributes resolved, their
+ * strings deduplicated into a single table, the severities and tags being shared by many rules.
+ * <p>
+ * The properties remain the source of truth, the index being regenerated from them on every build.
+ */
+public final class EsLintRuleIndex {
+    @SuppressWarnings("HardcodedFileSeparator")
+    public static final String RESOURCE_PATH = "/eslint/eslint-rules.idx";
+    // "ESRI", followed by the version of the format
+    private static final int MAGIC = 0x45535249;
+    private static final int VERSION = 1;
+    private static final int NO_STRING = -1;
+
+    private EsLintRuleIndex() {
+    }
+
+    /**
+     * Compiles a rules properties file into an index, run by the build.
+     *
+     * @param args the path of the properties file and the path of the index
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: EsLintRuleIndex <rules.properties> <rules.idx>");
+        }
+        Path properties = Paths.get(args[0]);
+        Path index = Paths.get(args[1]);
+
+        List<EsLintRule> rules = new ArrayList<>(2048);
+        try (InputStream in = Files.newInputStream(properties)) {
+            EsRulesDefinition.loadRules(in, rules);
+        }
+        try (OutputStream out = Files.newOutputStream(index)) {
+            write(rules, out);
+        }
+    }
+
+    /**
+     * Writes an index.
+     *
+     * @param rules the rules, in the order they will be read
+     * @param out   the stream, left open
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(List<EsLintRule> rules, OutputStream out) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        int[][] records = new int[rules.size()][];
+        for (int i = 0; i < records.length; i++) {
+            EsLintRule rule = rules.get(i);
+            boolean debt = rule.isHasDebtRemediation();
+            records[i] = new int[]{
+                    intern(strings, rule.getKey()),
+                    intern(strings, rule.getSeverity()),
+                    intern(strings, rule.getName()),
+                    intern(strings, rule.getHtmlDescription()),
+                    intern(strings, rule.getTags()),
+                    debt ? intern(strings, rule.getDebtRemediationFunction().name()) : NO_STRING,
+                    debt ? intern(strings, rule.getDebtRemediationScalar()) : NO_STRING,
+                    debt ? intern(strings, rule.getDebtRemediationOffset()) : NO_STRING,
+                    debt ? intern(strings, rule.getDebtType()) : NO_STRING
+            };
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            data.writeUTF(string);
+        }
+        data.writeInt(records.length);
+        for (int[] record : records) {
+            for (int string : record) {
+                data.writeInt(string);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads an index.
+     *
+     * @param in the stream, left open
+     * @return the rules
+     * @throws IOException if the stream cannot be read or is not an index of this version
+     */
+    public static List<EsLintRule> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not an EsLint rule index of version " + VERSION);
+        }
+        String[] strings = new String[data.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = data.readUTF();
+        }
+
+        int[] record = new int[9];
+        EsLintRule[] rules = new EsLintRule[data.readInt()];
+        for (int i = 0; i < rules.length; i++) {
+            for (int j = 0; j < record.length; j++) {
+                record[j] = data.readInt();
+            }
+            String key = strings[record[0]];
+            String severity = strings[record[1]];
+            String name = strings[record[2]];
+            String description = strings[record[3]];
+            String tags = strings[record[4]];
+            if (record[5] == NO_STRING) {
+                rules[i] = new EsLintRule(key, severity, name, description, tags);
+            } else {
+                rules[i] = new EsLintRule(key, severity, name, description, Type.valueOf(strings[record[5]]),
+                        strings[record[6]], strings[record[7]], string(strings, record[8]), tags);
+            }
+        }
+        return new ArrayList<>(Arrays.asList(rules));
+    }
+
+    private static int intern(Map<String, Integer> strings, String string) {
+        return string == null ? NO_STRING : strings.computeIfAbsent(string, s -> strings.size());
+    }
+
+    private static String string(String[] strings, int index) {
+        return index == NO_STRING ? null : strings[index];
+    }
+}
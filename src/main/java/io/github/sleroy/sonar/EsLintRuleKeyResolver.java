@@ -0,0 +1,83 @@
+package io.github.sleroy.sonar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.rule.RuleKey;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resolves the ESLint rule ids of the issues into the keys of the SonarQube rules, falling back to
+ * {@link EsRulesDefinition#ESLINT_UNKNOWN_RULE} for the rules not active in the profile. Each rule id is resolved once
+ * per analysis, the issues of a rule sharing the same key, and the unknown rules are logged once with their number of
+ * issues rather than once per issue.
+ * <p>
+ * Not thread-safe, the issues being saved by a single thread at a time.
+ */
+public class EsLintRuleKeyResolver {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintRuleKeyResolver.class);
+    private static final RuleKey UNKNOWN_RULE_KEY =
+            RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, EsRulesDefinition.ESLINT_UNKNOWN_RULE.getKey());
+
+    // Keys of the active rules, by SonarQube rule name
+    private final Map<String, RuleKey> activeRules;
+    // Keys resolved during the analysis, by ESLint rule id
+    private final Map<String, RuleKey> resolved = new HashMap<>();
+    // Number of issues of the unknown rules, by ESLint rule id
+    private final Map<String, Integer> unknownRules = new TreeMap<>();
+    private int issuesWithoutRule;
+
+    /**
+     * Creates a resolver.
+     *
+     * @param activeRules the active rules of the ESLint repository
+     */
+    public EsLintRuleKeyResolver(Collection<ActiveRule> activeRules) {
+        Map<String, RuleKey> keys = new HashMap<>(activeRules.size() * 2);
+        for (ActiveRule rule : activeRules) {
+            keys.put(rule.ruleKey().rule(), rule.ruleKey());
+        }
+        this.activeRules = Collections.unmodifiableMap(keys);
+    }
+
+    /**
+     * Resolves the key of the rule of an issue.
+     *
+     * @param ruleId the ESLint rule id, null if ESLint did not report one, typically for parsing errors
+     * @return the key of the rule, the key of the generic ESLint rule if the rule is not active
+     */
+    public RuleKey resolve(String ruleId) {
+        if (ruleId == null) {
+            this.issuesWithoutRule++;
+            return UNKNOWN_RULE_KEY;
+        }
+
+        RuleKey key = this.resolved.get(ruleId);
+        if (key == null) {
+            // Plugin rules are named plugin/rule by ESLint and plugin-rule by SonarQube
+            key = this.activeRules.getOrDefault(ruleId.replace('/', '-'), UNKNOWN_RULE_KEY);
+            this.resolved.put(ruleId, key);
+        }
+        if (key == UNKNOWN_RULE_KEY) {
+            this.unknownRules.merge(ruleId, 1, Integer::sum);
+        }
+        return key;
+    }
+
+    /**
+     * Logs the rules not active in the profile, with their number of issues.
+     */
+    public void logUnknownRules() {
+        if (this.issuesWithoutRule > 0) {
+            LOG.warn("{} issues have been returned with no Rule ID", this.issuesWithoutRule);
+        }
+        this.unknownRules.forEach((ruleId, issues) ->
+                LOG.info("Rule {} has not yet being defined into the EsLint plugin, its {} issues are reported as {}",
+                        ruleId, issues, EsRulesDefinition.ESLINT_UNKNOWN_RULE.getKey()));
+    }
+}
@@ -32,11 +32,9 @@ public class EsLintRuleProfile extends ProfileDefinition {
     public RulesProfile createProfile(final ValidationMessages validation) {
 	final RulesProfile profile = RulesProfile.create("EsLint", EsLintLanguage.LANGUAGE_KEY);
 
-	final EsRulesDefinition rules = new EsRulesDefinition();
-
 	EsLintRuleProfile.activateRule(profile, EsRulesDefinition.ESLINT_UNKNOWN_RULE.getKey());
 
-	for (final EsLintRule coreRule : rules.getCoreRules()) {
+	for (final EsLintRule coreRule : EsLintRuleCatalogue.coreRules()) {
 	    EsLintRuleProfile.activateRule(profile, coreRule.getKey());
 	}
 
@@ -10,6 +10,7 @@
  */
 package io.github.sleroy.sonar;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -18,7 +19,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,15 +30,17 @@ import org.sonar.api.batch.sensor.SensorDescriptor;
 import org.sonar.api.batch.sensor.issue.NewIssue;
 import org.sonar.api.batch.sensor.issue.NewIssueLocation;
 import org.sonar.api.config.Configuration;
-import org.sonar.api.rule.RuleKey;
 
 import io.github.sleroy.sonar.api.EsLintExecutor;
+import io.github.sleroy.sonar.api.EsLintIssueConsumer;
 import io.github.sleroy.sonar.api.EsLintParser;
 import io.github.sleroy.sonar.api.PathResolver;
 import io.github.sleroy.sonar.model.EsLintIssue;
 
 public class EsLintSensor implements Sensor {
     private static final Logger LOG = LoggerFactory.getLogger(EsLintSensor.class);
+    // Set by the scanner for pull request analyses only
+    private static final String PULL_REQUEST_KEY = "sonar.pullrequest.key";
 
     private final Configuration	 settings;
     private final PathResolver	 resolver;
@@ -64,23 +66,44 @@ public class EsLintSensor implements Sensor {
      */
     private Map<String, InputFile> buildFileMapWithJSFiles(final SensorContext ctx, final List<String> paths) {
 	final Map<String, InputFile> fileMap = new HashMap<>(100);
+	boolean changedFilesOnly = settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY)
+		.orElse(Boolean.FALSE);
+	// The issues of the unchanged files would be closed on a branch, they
+	// are only left out when SonarQube reports the new issues of a pull request
+	if (changedFilesOnly && !settings.get(PULL_REQUEST_KEY).isPresent()) {
+	    LOG.warn("{} only applies to pull request analyses, linting all the JS files",
+		    EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY);
+	    changedFilesOnly = false;
+	}
+	// Minified, bundled and generated files take long to lint for no actionable
+	// issue, they are skipped before being sent to ESLint
+	final EsLintFileFilter filter = EsLintFileFilter.fromSettings(settings, ctx.fileSystem());
+	int unchangedFiles = 0;
 	for (final InputFile file : ctx.fileSystem()
 		.inputFiles(ctx.fileSystem().predicates().hasLanguage(EsLintLanguage.LANGUAGE_KEY))) {
 
+	    // The status is unknown when there is no previous analysis, in which
+	    // case the file is analysed
+	    if (changedFilesOnly && file.status() == InputFile.Status.SAME) {
+		unchangedFiles++;
+		continue;
+	    }
+	    if (!filter.accept(file)) {
+		continue;
+	    }
+
 	    final String pathAdjusted = file.absolutePath();
 	    paths.add(pathAdjusted);
 	    fileMap.put(pathAdjusted, file);
 	}
+	if (changedFilesOnly) {
+	    LOG.info("Skipping {} JS files unchanged since the previous analysis", unchangedFiles);
+	}
+	filter.logSummary();
 	LOG.info("Build filemap with {} JS files", fileMap.size());
 	return fileMap;
     }
 
-    private Set<String> buildRuleNameSet(final Collection<ActiveRule> allRules) {
-	final Set<String> ruleNames = new HashSet<>(allRules.size());
-	ruleNames.addAll(allRules.stream().map(rule -> rule.ruleKey().rule()).collect(Collectors.toList()));
-	return ruleNames;
-    }
-
     @Override
     public void describe(final SensorDescriptor desc) {
 	desc.name("Linting sensor for Javascript files").onlyOnLanguage(EsLintLanguage.LANGUAGE_KEY);
@@ -108,11 +131,55 @@ public class EsLintSensor implements Sensor {
 	final Collection<ActiveRule> allRules = ctx.activeRules().findByRepository(EsRulesDefinition.REPOSITORY_NAME);
 	LOG.info("ESLint plugin is embedded with a profile containing {} rules", allRules.size());
 
-	final Set<String> ruleNames = buildRuleNameSet(allRules);
+	final EsLintRuleKeyResolver ruleKeys = new EsLintRuleKeyResolver(allRules);
 
 	final List<String> paths = new ArrayList<>(100);
 	final Map<String, InputFile> fileMap = buildFileMapWithJSFiles(ctx, paths);
 
+	// Files whose content was already linted with the same configuration are
+	// not sent to ESLint again, their issues are replayed from the cache
+	final EsLintResultCache cache = EsLintResultCache.fromSettings(ctx, config);
+	final Map<String, String> cacheKeys = new HashMap<>();
+	final List<String> pathsToLint = cache == null ? paths
+		: replayCachedIssues(ctx, cache, paths, fileMap, ruleKeys, cacheKeys);
+
+	try {
+	    if (cache != null && pathsToLint.isEmpty()) {
+		LOG.info("All files have been restored from the EsLint result cache");
+	    } else if (settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_STREAMING_PARSER).orElse(Boolean.FALSE)) {
+		executeAndSaveIssues(ctx, config, pathsToLint, fileMap, ruleKeys, cache, cacheKeys);
+	    } else {
+		executeAndSaveAllIssues(ctx, config, pathsToLint, fileMap, ruleKeys, cache, cacheKeys);
+	    }
+	} finally {
+	    if (cache != null) {
+		cache.evict();
+	    }
+	    ruleKeys.logUnknownRules();
+	}
+    }
+
+    /**
+     * Executes ESLint, then parses all its reports and saves their issues.
+     *
+     * @param ctx
+     *            the ctx
+     * @param config
+     *            the ESLint configuration
+     * @param paths
+     *            the paths to lint
+     * @param fileMap
+     *            the analysed files
+     * @param ruleKeys
+     *            resolves the keys of the rules of the issues
+     * @param cache
+     *            the result cache, null if disabled
+     * @param cacheKeys
+     *            the cache keys of the linted files
+     */
+    private void executeAndSaveAllIssues(final SensorContext ctx, final EsLintExecutorConfig config,
+	    final List<String> paths, final Map<String, InputFile> fileMap, final EsLintRuleKeyResolver ruleKeys,
+	    final EsLintResultCache cache, final Map<String, String> cacheKeys) {
 	// Execute the ESLint plugin and obtain JSON Results
 	final List<String> jsonResults = executor.execute(config, paths, ctx);
 	LOG.debug("Obtained {} JSON Results", jsonResults.size());
@@ -125,6 +192,17 @@ public class EsLintSensor implements Sensor {
 	}
 	LOG.info("{} Files have been analyzed", issues.size());
 
+	if (cache != null) {
+	    // Files missing from the reports were not linted, typically because
+	    // their batch failed, so they must not be cached
+	    for (final Entry<String, String> cacheKey : cacheKeys.entrySet()) {
+		final List<EsLintIssue> fileIssues = issues.get(cacheKey.getKey());
+		if (fileIssues != null) {
+		    cache.put(cacheKey.getValue(), fileIssues);
+		}
+	    }
+	}
+
 	// Each issue bucket will contain info about a single file
 	for (final Entry<String, List<EsLintIssue>> filePathEntry : issues.entrySet()) {
 	    final List<EsLintIssue> batchIssues = filePathEntry.getValue();
@@ -144,45 +222,137 @@ public class EsLintSensor implements Sensor {
 	    final InputFile file = fileMap.get(filePath);
 
 	    for (final EsLintIssue issue : batchIssues) {
+		saveIssue(ctx, ruleKeys, file, issue);
+	    }
+	}
+    }
 
-		final String ruleName = obtainRuleNameToAssociateThisIssue(ruleNames, issue);
+    /**
+     * Executes ESLint and saves the issues of each batch as soon as the batch
+     * completes, so that linting, parsing and saving overlap and only one
+     * report is held at a time.
+     *
+     * @param ctx
+     *            the ctx
+     * @param config
+     *            the ESLint configuration
+     * @param paths
+     *            the paths to lint
+     * @param fileMap
+     *            the analysed files
+     * @param ruleKeys
+     *            resolves the keys of the rules of the issues
+     * @param cache
+     *            the result cache, null if disabled
+     * @param cacheKeys
+     *            the cache keys of the linted files
+     */
+    private void executeAndSaveIssues(final SensorContext ctx, final EsLintExecutorConfig config,
+	    final List<String> paths, final Map<String, InputFile> fileMap, final EsLintRuleKeyResolver ruleKeys,
+	    final EsLintResultCache cache, final Map<String, String> cacheKeys) {
+	final Set<String> filesWithIssues = new HashSet<>();
+	final Set<String> unknownFiles = new HashSet<>();
 
-		final NewIssue newIssue = ctx.newIssue()
-			.forRule(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, ruleName));
+	final EsLintIssueConsumer saver = new EsLintIssueConsumer() {
+	    // The issues of the file being read, kept until it is complete to
+	    // be cached
+	    private final List<EsLintIssue> fileIssues = new ArrayList<>();
 
-		final NewIssueLocation newIssueLocation = newIssue
-			.newLocation().on(file).message(issue.getMessage()).at(file.selectLine(issue.getLine()));
+	    @Override
+	    public void accept(final String filePath, final EsLintIssue issue) {
+		final InputFile file = fileMap.get(filePath);
+		if (file != null) {
+		    filesWithIssues.add(filePath);
+		    saveIssue(ctx, ruleKeys, file, issue);
+		    if (cache != null) {
+			fileIssues.add(issue);
+		    }
+		} else if (unknownFiles.add(filePath)) {
+		    LOG.warn("EsLint reported issues against a file that wasn't sent to it - will be ignored: {}",
+			    filePath);
+		}
+	    }
 
-		newIssue.at(newIssueLocation);
-		newIssue.save();
+	    @Override
+	    public void fileCompleted(final String filePath) {
+		final String cacheKey = cacheKeys.get(filePath);
+		if (cache != null && cacheKey != null) {
+		    cache.put(cacheKey, fileIssues);
+		}
+		fileIssues.clear();
+	    }
+	};
+
+	executor.execute(config, paths, ctx, report -> parser.parse(report, saver));
+
+	LOG.info("{} Files have issues", filesWithIssues.size());
+    }
+
+    /**
+     * Saves the cached issues of the files that have not changed since they
+     * were last linted.
+     *
+     * @param ctx
+     *            the ctx
+     * @param cache
+     *            the result cache
+     * @param paths
+     *            the paths of all the files
+     * @param fileMap
+     *            the analysed files
+     * @param ruleKeys
+     *            resolves the keys of the rules of the issues
+     * @param cacheKeys
+     *            receives the cache keys of the files that must be linted
+     * @return the paths of the files that must be linted
+     */
+    private List<String> replayCachedIssues(final SensorContext ctx, final EsLintResultCache cache,
+	    final List<String> paths, final Map<String, InputFile> fileMap, final EsLintRuleKeyResolver ruleKeys,
+	    final Map<String, String> cacheKeys) {
+	final List<String> toLint = new ArrayList<>(paths.size());
+	for (final String path : paths) {
+	    final InputFile file = fileMap.get(path);
+	    try {
+		final String key = cache.key(file);
+		final List<EsLintIssue> cachedIssues = cache.get(key);
+		if (cachedIssues == null) {
+		    cacheKeys.put(path, key);
+		    toLint.add(path);
+		    continue;
+		}
+		for (final EsLintIssue issue : cachedIssues) {
+		    saveIssue(ctx, ruleKeys, file, issue);
+		}
+	    } catch (final IOException e) {
+		LOG.debug("Cannot compute the EsLint cache key of {}: {}", path, e.getMessage());
+		toLint.add(path);
 	    }
 	}
+	LOG.info("{} files restored from the EsLint result cache, {} files to lint", paths.size() - toLint.size(),
+		toLint.size());
+	return toLint;
     }
 
     /**
-     * Obtain rule name to associate this issue.
+     * Saves an issue against its file.
      *
-     * @param ruleNames
-     *            the rule names
+     * @param ctx
+     *            the ctx
+     * @param ruleKeys
+     *            resolves the keys of the rules of the issues
+     * @param file
+     *            the file
      * @param issue
      *            the issue
-     * @return the string
      */
-    private String obtainRuleNameToAssociateThisIssue(final Set<String> ruleNames, final EsLintIssue issue) {
-	// Make sure the rule we're violating is one we recognise - if
-	// not, we'll
-	// fall back to the generic 'eslint-issue' rule
-	String ruleName = "";
-	if (issue.getRuleId() != null) {
-	    ruleName = issue.getRuleId().replace('/', '-');
-	} else {
-	    LOG.warn("An issue has returned no Rule ID : {}", issue);
-	}
-	final boolean isNotRecognizedRule = issue.getRuleId() == null || !ruleNames.contains(ruleName);
-	if (isNotRecognizedRule) {
-	    LOG.info("Rule {} has not yet being defined into the EsLint plugin", ruleName);
-	    ruleName = EsRulesDefinition.ESLINT_UNKNOWN_RULE.getKey();
-	}
-	return ruleName;
+    private void saveIssue(final SensorContext ctx, final EsLintRuleKeyResolver ruleKeys, final InputFile file,
+	    final EsLintIssue issue) {
+	final NewIssue newIssue = ctx.newIssue().forRule(ruleKeys.resolve(issue.getRuleId()));
+
+	final NewIssueLocation newIssueLocation = newIssue
+		.newLocation().on(file).message(issue.getMessage()).at(file.selectLine(issue.getLine()));
+
+	newIssue.at(newIssueLocation);
+	newIssue.save();
     }
 }
@@ -0,0 +1,92 @@
+package io.github.sleroy.sonar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deduplicates the strings repeated across the issues of an analysis, so that the issues of a rule share a single
+ * instance of its id and of its messages. Rule ids are few and are all kept, each being numbered; messages are many
+ * more, some embedding identifiers, and are kept in a bounded cache where a message evicts the one it collides with.
+ */
+public class EsLintStringTable {
+    public static final int DEFAULT_MESSAGE_CACHE_SIZE = 4096;
+
+    private final Map<String, Integer> ruleIndexes = new HashMap<>();
+    private final List<String> ruleIds = new ArrayList<>();
+    private final String[] messages;
+    private final int messageMask;
+
+    public EsLintStringTable() {
+        this(DEFAULT_MESSAGE_CACHE_SIZE);
+    }
+
+    /**
+     * @param messageCacheSize the number of messages kept, rounded up to a power of two
+     */
+    public EsLintStringTable(int messageCacheSize) {
+        int size = messageCacheSize <= 1 ? 1 : Integer.highestOneBit(messageCacheSize - 1) << 1;
+        this.messages = new String[size];
+        this.messageMask = size - 1;
+    }
+
+    /**
+     * Returns the number of a rule id, numbering it if it is new.
+     *
+     * @param ruleId the rule id
+     * @return the number, from 0
+     */
+    public synchronized int ruleIndex(String ruleId) {
+        Integer index = this.ruleIndexes.get(ruleId);
+        if (index == null) {
+            index = this.ruleIds.size();
+            this.ruleIds.add(ruleId);
+            this.ruleIndexes.put(ruleId, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the rule id of a number.
+     *
+     * @param index the number returned by {@link #ruleIndex(String)}
+     * @return the rule id
+     */
+    public synchronized String ruleId(int index) {
+        return this.ruleIds.get(index);
+    }
+
+    /**
+     * Returns the canonical instance of a rule id.
+     *
+     * @param ruleId the rule id, possibly null
+     * @return the instance equal to the rule id shared by all its issues
+     */
+    public synchronized String internRuleId(String ruleId) {
+        return ruleId == null ? null : this.ruleId(this.ruleIndex(ruleId));
+    }
+
+    /**
+     * Returns the cached instance of a message, caching the message if there is none.
+     *
+     * @param message the message, possibly null
+     * @return the instance equal to the message
+     */
+    public synchronized String internMessage(String message) {
+        if (message == null) {
+            return null;
+        }
+        int slot = spread(message.hashCode()) & this.messageMask;
+        String cached = this.messages[slot];
+        if (message.equals(cached)) {
+            return cached;
+        }
+        this.messages[slot] = message;
+        return message;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
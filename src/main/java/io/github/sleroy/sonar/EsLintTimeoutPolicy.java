@@ -0,0 +1,81 @@
+package io.github.sleroy.sonar;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Derives the timeout of every batch from its cost. The configured timeout is per unit of cost; in adaptive mode
+ * it is lowered to a multiple of the time a unit actually took in the batches completed so far, or in the
+ * previous analysis until a batch completes, so that stragglers are killed early. A global deadline bounds the
+ * whole analysis.
+ */
+public class EsLintTimeoutPolicy {
+    // A batch may take that many times the observed time before being considered stuck
+    public static final double ADAPTIVE_SAFETY_FACTOR = 5;
+    // Adaptive timeouts never go below, to absorb process startup and the noise of small batches
+    public static final long MIN_ADAPTIVE_TIMEOUT_MS = 10000;
+
+    private final long timeoutMsPerUnit;
+    private final boolean adaptive;
+    private final double previousMsPerUnit;
+    private final long deadlineNanos;
+
+    // Throughput of the batches completed so far
+    private double observedMs;
+    private double observedUnits;
+
+    /**
+     * @param timeoutMsPerUnit  the configured timeout per unit of cost
+     * @param adaptive          true to lower the timeouts according to the observed throughput
+     * @param globalTimeoutMs   the time left to lint all the batches, from now, 0 for no limit
+     * @param previousMsPerUnit the time a unit of cost took in the previous analysis, 0 if unknown
+     */
+    public EsLintTimeoutPolicy(long timeoutMsPerUnit, boolean adaptive, long globalTimeoutMs, double previousMsPerUnit) {
+        this.timeoutMsPerUnit = timeoutMsPerUnit;
+        this.adaptive = adaptive;
+        this.previousMsPerUnit = previousMsPerUnit;
+        this.deadlineNanos = globalTimeoutMs > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(globalTimeoutMs) : 0;
+    }
+
+    /**
+     * Returns the timeout of a batch.
+     *
+     * @param cost the cost of the batch
+     * @return the timeout, 1 ms once the global deadline has passed
+     */
+    public long timeoutMs(double cost) {
+        long timeoutMs = (long) (this.timeoutMsPerUnit * Math.max(1, Math.ceil(cost)));
+
+        double msPerUnit = this.getMsPerUnit();
+        if (this.adaptive && msPerUnit > 0) {
+            long adaptiveMs = Math.max(MIN_ADAPTIVE_TIMEOUT_MS, (long) (ADAPTIVE_SAFETY_FACTOR * msPerUnit * cost));
+            timeoutMs = Math.min(timeoutMs, adaptiveMs);
+        }
+
+        if (this.deadlineNanos != 0) {
+            timeoutMs = Math.min(timeoutMs, TimeUnit.NANOSECONDS.toMillis(this.deadlineNanos - System.nanoTime()));
+        }
+        return Math.max(1, timeoutMs);
+    }
+
+    /**
+     * Tells whether the global deadline has passed.
+     */
+    public boolean isExpired() {
+        return this.deadlineNanos != 0 && System.nanoTime() - this.deadlineNanos >= 0;
+    }
+
+    /**
+     * Records the time a successful batch took.
+     *
+     * @param cost   the cost of the batch
+     * @param timeMs the time EsLint took to lint it
+     */
+    public synchronized void record(double cost, long timeMs) {
+        this.observedMs += timeMs;
+        this.observedUnits += cost;
+    }
+
+    private synchronized double getMsPerUnit() {
+        return this.observedUnits > 0 ? this.observedMs / this.observedUnits : this.previousMsPerUnit;
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.sleroy.sonar;
+
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.sensor.SensorContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers how long EsLint took on every file during the previous analyses, so that the batches of the next
+ * analysis can be balanced on actual lint times rather than on file sizes. Times are stored in the scanner
+ * working directory and converted into the units of {@link EsLintBatchPlanner#bySize()}, calibrated on the
+ * previous analyses, so that files with and without history can be mixed in the same batches.
+ */
+public class EsLintTimingStore implements EsLintBatchPlanner.CostModel {
+    public static final String FILE_NAME = "eslint-timings.json";
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintTimingStore.class);
+
+    private final File file;
+    private final EsLintBatchPlanner.CostModel sizeModel = EsLintBatchPlanner.bySize();
+    private final Map<String, Double> fileTimesMs = new ConcurrentHashMap<>();
+    private final double msPerUnit;
+
+    // Calibration of the current analysis
+    private double measuredMs;
+    private double measuredUnits;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param file the file the timings are saved to, null to not save them
+     */
+    public EsLintTimingStore(File file) {
+        this(file, 0, null);
+    }
+
+    private EsLintTimingStore(File file, double msPerUnit, Map<String, Double> fileTimesMs) {
+        this.file = file;
+        this.msPerUnit = msPerUnit;
+        if (fileTimesMs != null) {
+            this.fileTimesMs.putAll(fileTimesMs);
+        }
+    }
+
+    /**
+     * Loads the timings of the previous analyses of the project, which are kept out of the scanner working directory
+     * as the scanner cleans it at the start of every analysis.
+     *
+     * @param ctx the sensor context
+     * @return the store, empty if there are no previous timings
+     */
+    public static EsLintTimingStore load(SensorContext ctx) {
+        return load(new File(EsLintExecutorConfigFactory.persistentDirectory(ctx), FILE_NAME));
+    }
+
+    /**
+     * Loads the timings of the previous analyses.
+     *
+     * @param file the file the timings are saved to
+     * @return the store, empty if there are no previous timings
+     */
+    public static EsLintTimingStore load(File file) {
+        if (file.isFile()) {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                Timings timings = new Gson().fromJson(reader, Timings.class);
+                if (timings != null && timings.files != null) {
+                    return new EsLintTimingStore(file, timings.msPerUnit, timings.files);
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Ignoring unreadable EsLint timings {}: {}", file, e.getMessage());
+            }
+        }
+        return new EsLintTimingStore(file);
+    }
+
+    /**
+     * Returns the time a unit of cost took in the previous analyses.
+     *
+     * @return the time in milliseconds, 0 if unknown
+     */
+    public double getMsPerUnit() {
+        return this.msPerUnit;
+    }
+
+    @Override
+    public double weigh(String path) {
+        Double timeMs = this.fileTimesMs.get(path);
+        if (timeMs == null || this.msPerUnit <= 0) {
+            return this.sizeModel.weigh(path);
+        }
+        return timeMs / this.msPerUnit;
+    }
+
+    /**
+     * Records the time EsLint took on a single file.
+     *
+     * @param path   the path of the file
+     * @param timeMs the lint time
+     */
+    public void recordFile(String path, double timeMs) {
+        synchronized (this) {
+            this.measuredMs += timeMs;
+            this.measuredUnits += this.sizeModel.weigh(path);
+        }
+        // Averaged with the previous time, lint times being noisy
+        this.fileTimesMs.merge(path, timeMs, (previous, current) -> (previous + current) / 2);
+    }
+
+    /**
+     * Records the time EsLint took on a batch of files, shared between the files according to their size.
+     *
+     * @param paths  the paths of the files
+     * @param timeMs the lint time of the whole batch
+     */
+    public void recordBatch(List<String> paths, double timeMs) {
+        double units = 0;
+        for (String path : paths) {
+            units += this.sizeModel.weigh(path);
+        }
+        if (units <= 0) {
+            return;
+        }
+        for (String path : paths) {
+            this.recordFile(path, timeMs * this.sizeModel.weigh(path) / units);
+        }
+    }
+
+    /**
+     * Saves the timings, forgetting the files that no longer exist.
+     */
+    public void save() {
+        if (this.file == null) {
+            return;
+        }
+
+        Timings timings = new Timings();
+        synchronized (this) {
+            timings.msPerUnit = this.measuredUnits > 0 ? this.measuredMs / this.measuredUnits : this.msPerUnit;
+        }
+        timings.files = new TreeMap<>();
+        this.fileTimesMs.forEach((path, timeMs) -> {
+            if (new File(path).isFile()) {
+                timings.files.put(path, timeMs);
+            }
+        });
+
+        try {
+            Path directory = this.file.getAbsoluteFile().getParentFile().toPath();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "eslint-timings", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                new Gson().toJson(timings, writer);
+            }
+            Files.move(temp, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.debug("Cannot save EsLint timings to {}: {}", this.file, e.getMessage());
+        }
+    }
+
+    /**
+     * The persisted form of the timings.
+     */
+    private static final class Timings {
+        private double msPerUnit;
+        private Map<String, Double> files;
+    }
+}
@@ -0,0 +1,278 @@
+package io.github.sleroy.sonar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of warm EsLint daemons. Requests wait in a single queue, most expensive first, that workers pull from as
+ * soon as they are idle, so that a slow request never holds others back while workers have nothing to do. Workers are
+ * recycled after a number of files or when their heap grows too much, and crashed workers are restarted
+ * transparently.
+ */
+public class EsLintWorkerPool implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintWorkerPool.class);
+
+    /**
+     * Starts a new daemon, typically a Node process running the daemon script.
+     */
+    @FunctionalInterface
+    public interface DaemonFactory {
+        EsLintDaemon start() throws IOException;
+    }
+
+    private final DaemonFactory daemonFactory;
+    private final int maxFilesPerWorker;
+    private final long maxHeapBytes;
+    private final EsLintTimingStore timings;
+    private final List<Worker> workers;
+    private final PriorityBlockingQueue<Request> queue = new PriorityBlockingQueue<>(16,
+            Comparator.comparingDouble((Request r) -> r.cost).reversed().thenComparingLong(r -> r.sequence));
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Creates the pool and pre-starts all its workers.
+     *
+     * @param daemonFactory     starts the daemons
+     * @param size              the number of workers
+     * @param maxFilesPerWorker the number of files after which a worker is recycled, 0 to never recycle
+     * @param maxHeapMb         the V8 heap size, in MB, above which a worker is recycled, 0 to never recycle
+     * @throws IOException if a worker cannot be started
+     */
+    public EsLintWorkerPool(DaemonFactory daemonFactory, int size, int maxFilesPerWorker, int maxHeapMb) throws IOException {
+        this(daemonFactory, size, maxFilesPerWorker, maxHeapMb, null);
+    }
+
+    /**
+     * Creates the pool and pre-starts all its workers, recording the lint time of every file.
+     *
+     * @param daemonFactory     starts the daemons
+     * @param size              the number of workers
+     * @param maxFilesPerWorker the number of files after which a worker is recycled, 0 to never recycle
+     * @param maxHeapMb         the V8 heap size, in MB, above which a worker is recycled, 0 to never recycle
+     * @param timings           receives the lint times reported by the daemons, null to not record them
+     * @throws IOException if a worker cannot be started
+     */
+    public EsLintWorkerPool(DaemonFactory daemonFactory, int size, int maxFilesPerWorker, int maxHeapMb, EsLintTimingStore timings) throws IOException {
+        this.daemonFactory = daemonFactory;
+        this.maxFilesPerWorker = maxFilesPerWorker;
+        this.maxHeapBytes = maxHeapMb * 1024L * 1024L;
+        this.timings = timings;
+        this.workers = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                this.workers.add(new Worker(i + 1, daemonFactory.start()));
+            }
+        } catch (IOException e) {
+            this.close();
+            throw e;
+        }
+        this.workers.forEach(worker -> worker.thread.start());
+    }
+
+    /**
+     * Queues a request, the first idle worker taking the most expensive request queued. The timeout of the request
+     * is derived from its cost by the policy when a worker takes it, so that adaptive timeouts benefit from the
+     * requests completed in the meantime. The request is skipped once the global deadline of the policy has passed.
+     *
+     * @param files    the files to lint
+     * @param cost     the cost of the request, typically the cost of its batch
+     * @param timeouts the timeouts, which receives the lint time of the request
+     * @return the future JSON report, null if the files could not be linted
+     */
+    public CompletableFuture<String> submit(List<String> files, double cost, EsLintTimeoutPolicy timeouts) {
+        return this.submit(new Request(files, cost, timeouts, this.sequence.getAndIncrement()));
+    }
+
+    private CompletableFuture<String> submit(Request request) {
+        if (this.closed) {
+            throw new IllegalStateException("The EsLint worker pool is closed");
+        }
+        this.queue.add(request);
+        return request.report;
+    }
+
+    /**
+     * Logs the throughput of every worker.
+     */
+    public void logStatistics() {
+        for (Worker worker : this.workers) {
+            LOG.debug("EsLint worker #{}: {} files in {} requests, {} ms linting ({} files/s), {} restarts, {} recycles",
+                    worker.id, worker.files, worker.requests, worker.lintTimeMs,
+                    worker.lintTimeMs == 0 ? 0 : worker.files * 1000 / worker.lintTimeMs,
+                    worker.restarts, worker.recycles);
+        }
+    }
+
+    /**
+     * Stops the workers once the queued requests are linted.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        for (int i = 0; i < this.workers.size(); i++) {
+            // Cheaper than any request, so taken once the queue is empty
+            this.queue.add(new Request(null, Double.NEGATIVE_INFINITY, null, Long.MAX_VALUE));
+        }
+        for (Worker worker : this.workers) {
+            try {
+                if (worker.thread.isAlive()) {
+                    worker.thread.join(TimeUnit.MINUTES.toMillis(1));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker.stop();
+        }
+    }
+
+    private static final class Request {
+        private final List<String> files;
+        private final double cost;
+        private final EsLintTimeoutPolicy timeouts;
+        private final long sequence;
+        private final CompletableFuture<String> report = new CompletableFuture<>();
+
+        Request(List<String> files, double cost, EsLintTimeoutPolicy timeouts, long sequence) {
+            this.files = files;
+            this.cost = cost;
+            this.timeouts = timeouts;
+            this.sequence = sequence;
+        }
+    }
+
+    private final class Worker {
+        private final int id;
+        private final Thread thread;
+        private EsLintDaemon daemon;
+        private int filesSinceStart;
+
+        // Counters, only updated from the worker thread
+        private long files;
+        private long requests;
+        private long lintTimeMs;
+        private int restarts;
+        private int recycles;
+
+        Worker(int id, EsLintDaemon daemon) {
+            this.id = id;
+            this.daemon = daemon;
+            this.thread = new Thread(this::run, "eslint-worker-" + id);
+            this.thread.setDaemon(true);
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    Request request = EsLintWorkerPool.this.queue.take();
+                    if (request.files == null) {
+                        return;
+                    }
+                    try {
+                        request.report.complete(this.lint(request));
+                    } catch (RuntimeException e) {
+                        request.report.completeExceptionally(e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private String lint(Request request) {
+            EsLintTimeoutPolicy timeouts = request.timeouts;
+            if (timeouts.isExpired()) {
+                LOG.error("EsLint global timeout reached, {} files have not been analysed: {}", request.files.size(), request.files);
+                return null;
+            }
+
+            long start = System.nanoTime();
+            String report = this.lintOrRetry(request.files, timeouts.timeoutMs(request.cost));
+            if (report != null) {
+                timeouts.record(request.cost, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            return report;
+        }
+
+        private String lintOrRetry(List<String> batch, long timeoutMs) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    if (this.daemon == null) {
+                        this.daemon = EsLintWorkerPool.this.daemonFactory.start();
+                        this.filesSinceStart = 0;
+                    }
+
+                    long start = System.nanoTime();
+                    String report = this.daemon.lint(batch, timeoutMs);
+                    this.lintTimeMs += TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    this.requests++;
+                    this.files += batch.size();
+                    this.filesSinceStart += batch.size();
+                    if (EsLintWorkerPool.this.timings != null) {
+                        this.daemon.getLastTimings().forEach(EsLintWorkerPool.this.timings::recordFile);
+                    }
+
+                    this.recycleIfNeeded();
+                    return report;
+                } catch (TimeoutException e) {
+                    LOG.error("EsLint worker #{} timed out on a batch of {} files, they will not be analysed", this.id, batch.size());
+                    this.restarts++;
+                    this.replaceDaemon();
+                    return null;
+                } catch (IOException e) {
+                    this.restarts++;
+                    this.replaceDaemon();
+                    if (attempt > 1) {
+                        LOG.error("EsLint worker #{} failed twice on a batch of {} files, they will not be analysed", this.id, batch.size(), e);
+                        return null;
+                    }
+                    LOG.warn("EsLint worker #{} crashed, retrying its batch on a fresh process: {}", this.id, e.getMessage());
+                }
+            }
+        }
+
+        private void recycleIfNeeded() {
+            boolean tooManyFiles = EsLintWorkerPool.this.maxFilesPerWorker > 0 && this.filesSinceStart >= EsLintWorkerPool.this.maxFilesPerWorker;
+            boolean heapTooBig = EsLintWorkerPool.this.maxHeapBytes > 0 && this.daemon.getLastHeapUsed() >= EsLintWorkerPool.this.maxHeapBytes;
+            if (tooManyFiles || heapTooBig) {
+                LOG.debug("Recycling EsLint worker #{} after {} files, heap used {} bytes", this.id, this.filesSinceStart, this.daemon.getLastHeapUsed());
+                this.recycles++;
+                this.replaceDaemon();
+            }
+        }
+
+        /**
+         * Replaces the daemon by a fresh one, so that the worker is warm again when its next request comes.
+         */
+        private void replaceDaemon() {
+            this.stop();
+            try {
+                this.daemon = EsLintWorkerPool.this.daemonFactory.start();
+                this.filesSinceStart = 0;
+            } catch (IOException e) {
+                LOG.warn("Failed to restart EsLint worker #{}, will retry on its next batch: {}", this.id, e.getMessage());
+            }
+        }
+
+        /**
+         * Stops the daemon, the next request will start a new one.
+         */
+        private void stop() {
+            if (this.daemon != null) {
+                this.daemon.close();
+                this.daemon = null;
+            }
+        }
+    }
+}
@@ -9,13 +9,9 @@
  */
 package io.github.sleroy.sonar;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Properties;
 
 import org.slf4j.Logger;
@@ -43,8 +39,6 @@ public class EsRulesDefinition implements RulesDefinition {
     public static final EsLintRule ESLINT_UNKNOWN_RULE		   = new EsLintRule(
 	    "eslint-issue", Severity.MAJOR, "EsLint issues that are not yet known to the plugin", "No description for ESLint rule", "");
     private static final Logger	   LOG				   = LoggerFactory.getLogger(EsRulesDefinition.class);
-    @SuppressWarnings("HardcodedFileSeparator")
-    private static final String	   CORE_RULES_CONFIG_RESOURCE_PATH = "/eslint/eslint-rules.properties";
     private static final String	   DEFAULT_TAGS			   = "eslint";
 
     public static void loadRules(InputStream stream, List<EsLintRule> rulesCollection) {
@@ -163,22 +157,18 @@ public class EsRulesDefinition implements RulesDefinition {
 	sonarRule.setType(type);
     }
 
-    private final Configuration settings;
+    private final List<EsLintRule> eslintCoreRules;
 
-    private final List<EsLintRule> eslintCoreRules = new ArrayList<>(100);
-
-    private final List<EsLintRule> eslintRules = new ArrayList<>(100);
+    private final List<EsLintRule> eslintRules;
 
     public EsRulesDefinition() {
 	this(null);
     }
 
     public EsRulesDefinition(Configuration settings) {
-
-	this.settings = settings;
-
-	loadCoreRules();
-	loadCustomRules();
+	// The rules are parsed once per process, not once per definition
+	eslintCoreRules = EsLintRuleCatalogue.coreRules();
+	eslintRules = EsLintRuleCatalogue.customRules(settings);
     }
 
     @Override
@@ -208,25 +198,4 @@ public class EsRulesDefinition implements RulesDefinition {
     public List<EsLintRule> getRules() {
 	return eslintRules;
     }
-
-    private void loadCoreRules() {
-	final InputStream coreRulesStream = EsRulesDefinition.class.getResourceAsStream(EsRulesDefinition.CORE_RULES_CONFIG_RESOURCE_PATH);
-	EsRulesDefinition.loadRules(coreRulesStream, eslintCoreRules);
-    }
-
-    private void loadCustomRules() {
-	if (settings == null) {
-	    return;
-	}
-
-	final String[] configKeys = settings.getStringArray(EsLintPlugin.SETTING_ES_RULE_CONFIGS);
-
-	for (final String cfgKey : configKeys) {
-	    final Optional<String> rulesConfig = settings.get(cfgKey);
-	    if (rulesConfig.isPresent()) {
-		final InputStream rulesConfigStream = new ByteArrayInputStream(rulesConfig.get().getBytes(Charset.defaultCharset()));
-		EsRulesDefinition.loadRules(rulesConfigStream, eslintRules);
-	    }
-	}
-    }
 }
@@ -18,4 +18,16 @@ import io.github.sleroy.sonar.EsLintExecutorConfig;
 @ScannerSide
 public interface EsLintExecutor {
     List<String> execute(EsLintExecutorConfig config, List<String> files, SensorContext ctx);
+
+    /**
+     * Runs EsLint and streams the report of each batch to the handler as soon as the batch completes,
+     * without loading it in memory. The handler is called from the calling thread, one report at a time,
+     * while the remaining batches keep running.
+     *
+     * @param config  the EsLint configuration
+     * @param files   the files to lint
+     * @param ctx     the sensor context
+     * @param handler receives the reports
+     */
+    void execute(EsLintExecutorConfig config, List<String> files, SensorContext ctx, EsLintReportHandler handler);
 }
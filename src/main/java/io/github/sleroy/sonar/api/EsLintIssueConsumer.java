@@ -0,0 +1,26 @@
+package io.github.sleroy.sonar.api;
+
+import io.github.sleroy.sonar.model.EsLintIssue;
+
+/**
+ * Receives the issues found by EsLint, one at a time.
+ */
+@FunctionalInterface
+public interface EsLintIssueConsumer {
+    /**
+     * Accepts an issue.
+     *
+     * @param filePath the path of the file, with forward slashes
+     * @param issue    the issue
+     */
+    void accept(String filePath, EsLintIssue issue);
+
+    /**
+     * Called once all the issues of a file have been accepted, including for files without any issue.
+     *
+     * @param filePath the path of the file, with forward slashes
+     */
+    default void fileCompleted(String filePath) {
+        // Nothing to do by default
+    }
+}
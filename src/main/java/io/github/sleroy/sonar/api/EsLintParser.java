@@ -2,9 +2,20 @@ package io.github.sleroy.sonar.api;
 
 import io.github.sleroy.sonar.model.EsLintIssue;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 import java.util.Map;
 
 public interface EsLintParser {
     Map<String, List<EsLintIssue>> parse(List<String> rawOutputBatches);
+
+    /**
+     * Parses a report incrementally, handing each issue over to the consumer as soon as it is read.
+     *
+     * @param report   the JSON report
+     * @param consumer receives the issues
+     * @throws IOException if the report cannot be read or is malformed
+     */
+    void parse(Reader report, EsLintIssueConsumer consumer) throws IOException;
 }
@@ -0,0 +1,18 @@
+package io.github.sleroy.sonar.api;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Receives the JSON report of a batch of files, as produced by the EsLint json formatter.
+ */
+@FunctionalInterface
+public interface EsLintReportHandler {
+    /**
+     * Handles a report. The reader is only valid during the call.
+     *
+     * @param report the report
+     * @throws IOException if the report cannot be read
+     */
+    void handle(Reader report) throws IOException;
+}
@@ -10,6 +10,8 @@ public class EsLintIssue {
     private int severity;
     private int column;
     private int line = 1;
+    private int endLine;
+    private int endColumn;
     private String source;
 
     public String getName() {
@@ -72,6 +74,32 @@ public class EsLintIssue {
         this.line = line;
     }
 
+    /**
+     * Returns the line the issue ends on.
+     *
+     * @return the line, 0 if EsLint did not report it
+     */
+    public int getEndLine() {
+        return endLine;
+    }
+
+    public void setEndLine(int endLine) {
+        this.endLine = endLine;
+    }
+
+    /**
+     * Returns the column the issue ends at.
+     *
+     * @return the column, 0 if EsLint did not report it
+     */
+    public int getEndColumn() {
+        return endColumn;
+    }
+
+    public void setEndColumn(int endColumn) {
+        this.endColumn = endColumn;
+    }
+
     public String getSource() {
         return source;
     }
@@ -89,6 +117,8 @@ public class EsLintIssue {
                 ", severity=" + severity +
                 ", column=" + column +
                 ", line=" + line +
+                ", endLine=" + endLine +
+                ", endColumn=" + endColumn +
                 ", source='" + source + '\'' +
                 '}';
     }
@@ -0,0 +1,128 @@
+'use strict';
+
+/*
+ * Long-lived ESLint worker used by the daemon execution mode of the SonarQube ESLint plugin.
+ *
+ * Usage: node eslint-daemon.js --eslint <path to eslint.js> --config <config file>
+ *                              [--rules-dir <dir>] [--no-inline-config]
+ *
+ * The worker reads one JSON request per line on stdin:
+ *   {"id": 1, "files": ["/abs/path/a.js", "/abs/path/b.js"]}
+ * and answers each request, in order, with a header line followed by the report of the files
+ * in the same format as "eslint -f json":
+ *   {"id": 1, "heapUsed": 12345678, "timings": {"/abs/path/a.js": 12, "/abs/path/b.js": 3}}
+ *   [{"filePath": "/abs/path/a.js", "messages": [...]}, ...]
+ * The timings are the wall-clock lint times of the files, in milliseconds.
+ * When linting fails, the header carries an "error" member and no report line follows.
+ * Stdout is reserved to the protocol, whatever ESLint and its plugins print is written to stderr.
+ */
+
+const path = require('path');
+const readline = require('readline');
+
+// Stdout carries the protocol, anything else written to it by ESLint, its plugins or their rules would corrupt
+// it: it is kept for the protocol and everything else goes to stderr, before ESLint is loaded
+const writeProtocol = process.stdout.write.bind(process.stdout);
+process.stdout.write = process.stderr.write.bind(process.stderr);
+console.log = console.info = console.debug = console.error;
+
+function parseArguments(argv) {
+    const options = { noInlineConfig: false };
+    for (let i = 0; i < argv.length; i++) {
+        switch (argv[i]) {
+            case '--eslint':
+                options.eslint = argv[++i];
+                break;
+            case '--config':
+                options.config = argv[++i];
+                break;
+            case '--rules-dir':
+                options.rulesDir = argv[++i];
+                break;
+            case '--no-inline-config':
+                options.noInlineConfig = true;
+                break;
+            default:
+                throw new Error('Unknown argument ' + argv[i]);
+        }
+    }
+    return options;
+}
+
+function createLinter(eslint, options) {
+    const rulePaths = options.rulesDir ? [options.rulesDir] : [];
+
+    if (eslint.ESLint) {
+        // ESLint 7+
+        const engine = new eslint.ESLint({
+            overrideConfigFile: options.config,
+            rulePaths: rulePaths,
+            allowInlineConfig: !options.noInlineConfig,
+            errorOnUnmatchedPattern: false
+        });
+        return files => engine.lintFiles(files);
+    }
+
+    const engine = new eslint.CLIEngine({
+        configFile: options.config,
+        rulePaths: rulePaths,
+        allowInlineConfig: !options.noInlineConfig
+    });
+    return files => Promise.resolve(engine.executeOnFiles(files).results);
+}
+
+// Members of the results the plugin never reads, dropped before they are serialised
+const UNUSED_MEMBERS = new Set(['source', 'output', 'fix', 'suggestions', 'usedDeprecatedRules']);
+
+function stripUnusedMembers(key, value) {
+    return UNUSED_MEMBERS.has(key) ? undefined : value;
+}
+
+// Lints the files one at a time to time each of them, the engine caching the resolved configurations
+function lintTimed(files) {
+    const results = [];
+    const timings = {};
+    return files.reduce((previous, file) => previous.then(() => {
+        const start = Date.now();
+        return lint([file]).then(fileResults => {
+            timings[file] = Date.now() - start;
+            fileResults.forEach(result => results.push(result));
+        });
+    }), Promise.resolve()).then(() => ({ results: results, timings: timings }));
+}
+
+function writeLines(lines) {
+    writeProtocol(lines.join('\n') + '\n');
+}
+
+const options = parseArguments(process.argv.slice(2));
+// eslint.js lives in <package>/bin, the package entry point is one level up
+const lint = createLinter(require(path.resolve(path.dirname(options.eslint), '..')), options);
+
+function handle(line) {
+    let request;
+    try {
+        request = JSON.parse(line);
+    } catch (e) {
+        writeLines([JSON.stringify({ id: -1, error: 'Malformed request: ' + e.message })]);
+        return Promise.resolve();
+    }
+
+    return lintTimed(request.files).then(
+        linted => writeLines([
+            JSON.stringify({ id: request.id, heapUsed: process.memoryUsage().heapUsed, timings: linted.timings }),
+            JSON.stringify(linted.results, stripUnusedMembers)
+        ]),
+        error => writeLines([JSON.stringify({ id: request.id, error: String(error && error.stack || error) })])
+    );
+}
+
+// Requests are processed one at a time, in the order they were received
+let queue = Promise.resolve();
+const input = readline.createInterface({ input: process.stdin, terminal: false });
+input.on('line', line => {
+    if (line.trim()) {
+        queue = queue.then(() => handle(line));
+    }
+});
+input.on('close', () => queue.then(() => process.exit(0)));
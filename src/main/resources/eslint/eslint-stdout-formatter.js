@@ -0,0 +1,18 @@
+'use strict';
+
+/*
+ * ESLint formatter used when the SonarQube ESLint plugin reads the reports from the standard output of ESLint.
+ *
+ * Usage: eslint -f eslint-stdout-formatter.js <files>
+ *
+ * Rules, plugins and configurations may print to stdout as well, so the report, in the same format as
+ * "eslint -f json", is written on the line following a marker line. JSON.stringify never writes line
+ * breaks, the report ends with the line.
+ */
+
+const REPORT_MARKER = '<<<sonar-eslint-report>>>';
+
+module.exports = function (results) {
+    // Whatever was printed before may not end with a line break
+    return '\n' + REPORT_MARKER + '\n' + JSON.stringify(results);
+};
@@ -0,0 +1,36 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class BoundedStreamConsumerTest {
+    private static final String EOL = System.lineSeparator();
+
+    @Test
+    public void getTail_returnsAllLines_ifWithinLimit() {
+	final BoundedStreamConsumer consumer = new BoundedStreamConsumer(10);
+	consumer.consumeLine("abc");
+	consumer.consumeLine("def");
+
+	assertEquals("abc" + EOL + "def" + EOL, consumer.getTail());
+    }
+
+    @Test
+    public void getTail_discardsOldestLines_beyondLimit() {
+	final BoundedStreamConsumer consumer = new BoundedStreamConsumer(6);
+	consumer.consumeLine("abc");
+	consumer.consumeLine("def");
+	consumer.consumeLine("ghi");
+
+	assertEquals("..." + EOL + "def" + EOL + "ghi" + EOL, consumer.getTail());
+    }
+
+    @Test
+    public void getTail_keepsEndOfLongLine() {
+	final BoundedStreamConsumer consumer = new BoundedStreamConsumer(4);
+	consumer.consumeLine("abcdefgh");
+
+	assertEquals("..." + EOL + "efgh" + EOL, consumer.getTail());
+    }
+}
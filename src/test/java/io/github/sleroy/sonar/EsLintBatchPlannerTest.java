@@ -0,0 +1,148 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EsLintBatchPlannerTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static EsLintBatchPlanner plannerWithWeights(final Map<String, Double> weights) {
+	return new EsLintBatchPlanner(path -> weights.getOrDefault(path, 1.0));
+    }
+
+    @Test
+    public void plan_balancesBatchesByCost() {
+	final Map<String, Double> weights = new HashMap<>();
+	weights.put("bundle1.js", 100.0);
+	weights.put("bundle2.js", 100.0);
+	final List<String> files = Arrays.asList("bundle1.js", "bundle2.js", "a.js", "b.js", "c.js", "d.js");
+
+	final List<EsLintBatchPlanner.Batch> batches = plannerWithWeights(weights).plan(files, path -> path,
+		Integer.MAX_VALUE, 2);
+
+	assertEquals(2, batches.size());
+	assertEquals(102.0, batches.get(0).getCost(), 0.001);
+	assertEquals(102.0, batches.get(1).getCost(), 0.001);
+	assertTrue(batches.get(0).getArguments().contains("bundle1.js"));
+	assertTrue(batches.get(1).getArguments().contains("bundle2.js"));
+    }
+
+    @Test
+    public void plan_createsBatches_whenCommandLineIsFull() {
+	final List<String> files = Arrays.asList("a.js", "b.js", "c.js", "d.js");
+
+	// Room for two files per batch, each file taking 5 characters with its separator
+	final List<EsLintBatchPlanner.Batch> batches = plannerWithWeights(Collections.emptyMap()).plan(files,
+		path -> path, 10, 1);
+
+	assertEquals(2, batches.size());
+	assertEquals(Arrays.asList("a.js", "b.js"), batches.get(0).getArguments());
+	assertEquals(Arrays.asList("c.js", "d.js"), batches.get(1).getArguments());
+    }
+
+    @Test
+    public void plan_keepsOrderOfFilesOfEqualCost() {
+	final List<String> files = Arrays.asList("path/to/file", "path/to/another");
+
+	final List<EsLintBatchPlanner.Batch> batches = plannerWithWeights(Collections.emptyMap()).plan(files,
+		path -> '"' + path + '"', Integer.MAX_VALUE, 1);
+
+	assertEquals(1, batches.size());
+	assertEquals(Arrays.asList("\"path/to/file\"", "\"path/to/another\""), batches.get(0).getArguments());
+	assertEquals(2.0, batches.get(0).getCost(), 0.001);
+    }
+
+    @Test
+    public void split_halvesFilesAndCost() {
+	final Map<String, Double> weights = new HashMap<>();
+	weights.put("a.js", 3.0);
+	final EsLintBatchPlanner.Batch batch = plannerWithWeights(weights)
+		.plan(Arrays.asList("a.js", "b.js", "c.js"), path -> '"' + path + '"', Integer.MAX_VALUE, 1).get(0);
+
+	final List<EsLintBatchPlanner.Batch> halves = batch.split();
+
+	assertEquals(2, halves.size());
+	assertEquals(Arrays.asList("a.js"), halves.get(0).getPaths());
+	assertEquals(Arrays.asList("\"b.js\"", "\"c.js\""), halves.get(1).getArguments());
+	assertEquals(3.0, halves.get(0).getCost(), 0.001);
+	assertEquals(2.0, halves.get(1).getCost(), 0.001);
+	assertEquals(Arrays.asList(halves.get(0)), halves.get(0).split());
+    }
+
+    @Test
+    public void plan_returnsTheMostExpensiveBatchesFirst() {
+	final Map<String, Double> weights = new HashMap<>();
+	weights.put("a.js", 4.0);
+	weights.put("b.js", 3.0);
+	weights.put("c.js", 2.0);
+	weights.put("d.js", 2.0);
+	weights.put("e.js", 2.0);
+	final List<String> files = Arrays.asList("a.js", "b.js", "c.js", "d.js", "e.js");
+
+	// Room for two files per batch, the batch of b.js receiving e.js once the batch of c.js and d.js is full
+	final List<EsLintBatchPlanner.Batch> batches = plannerWithWeights(weights).plan(files, path -> path, 10, 3);
+
+	assertEquals(3, batches.size());
+	assertTrue(batches.get(0).getArguments().contains("b.js"));
+	assertEquals(4.0, batches.get(1).getCost(), 0.001);
+	assertEquals(4.0, batches.get(2).getCost(), 0.001);
+    }
+
+    @Test
+    public void plan_dropsEmptyBatches() {
+	final List<EsLintBatchPlanner.Batch> batches = plannerWithWeights(Collections.emptyMap())
+		.plan(Arrays.asList("a.js"), path -> path, Integer.MAX_VALUE, 8);
+
+	assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void plan_returnsOneEmptyBatch_whenNoFiles() {
+	final List<EsLintBatchPlanner.Batch> batches = plannerWithWeights(Collections.emptyMap())
+		.plan(Collections.emptyList(), path -> path, Integer.MAX_VALUE, 4);
+
+	assertEquals(1, batches.size());
+	assertTrue(batches.get(0).getArguments().isEmpty());
+    }
+
+    @Test
+    public void chunk_keepsTheOrderOfTheFiles_whateverTheirCost() {
+	final Map<String, Double> weights = new HashMap<>();
+	weights.put("c.js", 100.0);
+	final List<String> files = Arrays.asList("a.js", "b.js", "c.js");
+
+	// Room for two files per batch, each file taking 5 characters with its separator
+	final List<EsLintBatchPlanner.Batch> batches = plannerWithWeights(weights).chunk(files, path -> path, 10);
+
+	assertEquals(2, batches.size());
+	assertEquals(Arrays.asList("a.js", "b.js"), batches.get(0).getArguments());
+	assertEquals(Arrays.asList("c.js"), batches.get(1).getArguments());
+	assertEquals(100.0, batches.get(1).getCost(), 0.001);
+    }
+
+    @Test
+    public void bySize_weighsFilesByTheirSize() throws IOException {
+	final File small = temp.newFile("small.js");
+	final File big = temp.newFile("big.js");
+	Files.write(big.toPath(), new byte[(int) (3 * EsLintBatchPlanner.REFERENCE_FILE_SIZE)]);
+
+	final EsLintBatchPlanner.CostModel model = EsLintBatchPlanner.bySize();
+
+	assertEquals(1.0, model.weigh(small.getAbsolutePath()), 0.001);
+	assertEquals(4.0, model.weigh(big.getAbsolutePath()), 0.001);
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.stubbing.Answer;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.utils.TempFolder;
+
+public class EsLintDaemonExecutorTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private EsLintExecutorConfig config;
+    private SensorContextTester context;
+    private TempFolder tempFolder;
+
+    @Before
+    public void setUp() throws Exception {
+	this.config = new EsLintExecutorConfig();
+	this.config.setExecutionMode(EsLintExecutorConfig.EXECUTION_MODE_POOL);
+	this.config.setParallelism(2);
+	this.config.setTimeoutMs(10000);
+	this.context = SensorContextTester.create(this.temp.newFolder("project"));
+
+	this.tempFolder = mock(TempFolder.class);
+	when(this.tempFolder.newFile(any(String.class), any(String.class))).then(invocation -> this.temp.newFile());
+    }
+
+    /**
+     * Returns an executor whose daemons lint with the given answer.
+     */
+    private EsLintDaemonExecutor executor(final Answer<String> lint) {
+	return new EsLintDaemonExecutor(this.tempFolder) {
+	    @Override
+	    protected EsLintDaemon startDaemon(final List<String> command) throws IOException {
+		final EsLintDaemon daemon = mock(EsLintDaemon.class);
+		try {
+		    when(daemon.lint(any(), anyLong())).then(lint);
+		} catch (final TimeoutException e) {
+		    throw new IllegalStateException(e);
+		}
+		return daemon;
+	    }
+	};
+    }
+
+    @Test
+    public void execute_handsReportsOverAsTheyComplete_whateverTheOrderOfTheBatches() throws Exception {
+	final List<String> files = new ArrayList<>();
+	for (int i = 0; i < 2 * EsLintDaemonExecutor.DAEMON_BATCH_SIZE; i++) {
+	    files.add("file" + i + ".js");
+	}
+	final CountDownLatch fastHandled = new CountDownLatch(1);
+	final EsLintDaemonExecutor executor = this.executor(invocation -> {
+	    final List<String> batch = invocation.getArgument(0);
+	    // The batch of the first file only completes once the other report has been handled
+	    if (batch.contains(files.get(0))) {
+		fastHandled.await(10, TimeUnit.SECONDS);
+		return "slow";
+	    }
+	    return "fast";
+	});
+
+	final List<String> handled = Collections.synchronizedList(new ArrayList<>());
+	executor.execute(this.config, files, this.context, report -> {
+	    handled.add(IOUtils.toString(report));
+	    fastHandled.countDown();
+	});
+
+	assertEquals(2, handled.size());
+	assertEquals("fast", handled.get(0));
+	assertEquals("slow", handled.get(1));
+    }
+
+    @Test
+    public void execute_returnsEveryReport() throws Exception {
+	final EsLintDaemonExecutor executor = this.executor(invocation -> "[]");
+	final List<String> files = new ArrayList<>();
+	for (int i = 0; i < 3 * EsLintDaemonExecutor.DAEMON_BATCH_SIZE; i++) {
+	    files.add("file" + i + ".js");
+	}
+
+	assertEquals(3, executor.execute(this.config, files, this.context).size());
+    }
+
+    @Test
+    public void getDaemonCommand_passesTheConfiguration() throws Exception {
+	this.config.setPathToEsLint("eslint.js");
+	this.config.setConfigFile(".eslintrc");
+	final File script = this.temp.newFile("eslint-daemon.js");
+
+	final List<String> command = EsLintDaemonExecutor.getDaemonCommand(this.config, script, this.context);
+
+	assertEquals(script.getAbsolutePath(), command.get(command.indexOf("--eslint") - 1));
+	assertEquals("eslint.js", command.get(command.indexOf("--eslint") + 1));
+	assertEquals(".eslintrc", command.get(command.indexOf("--config") + 1));
+    }
+}
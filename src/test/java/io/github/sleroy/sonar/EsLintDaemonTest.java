@@ -0,0 +1,174 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EsLintDaemonTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static boolean isNodeAvailable() {
+	try {
+	    return new ProcessBuilder("node", "--version").start().waitFor() == 0;
+	} catch (IOException | InterruptedException e) {
+	    return false;
+	}
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+	Files.createDirectories(file.getParentFile().toPath());
+	Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void lint_ignoresWhatRulesPrint() throws Exception {
+	Assume.assumeTrue("Node is not installed", isNodeAvailable());
+
+	// An ESLint whose rules print to stdout, as some plugins do
+	final File eslintPackage = temp.newFolder("eslint");
+	write(new File(eslintPackage, "package.json"), "{\"name\":\"eslint\",\"main\":\"lib/api.js\"}");
+	write(new File(eslintPackage, "bin/eslint.js"), "");
+	write(new File(eslintPackage, "lib/api.js"), "console.log('loading');\n"
+		+ "class CLIEngine {\n"
+		+ "  executeOnFiles(files) {\n"
+		+ "    console.log('linting', files);\n"
+		+ "    console.info('info');\n"
+		+ "    process.stdout.write('raw output\\n');\n"
+		+ "    return { results: files.map(f => ({ filePath: f, messages: [] })) };\n"
+		+ "  }\n"
+		+ "}\n"
+		+ "module.exports = { CLIEngine: CLIEngine };\n");
+	final File script = temp.newFile("eslint-daemon.js");
+	try (InputStream in = EsLintDaemonTest.class.getResourceAsStream(EsLintDaemonExecutor.DAEMON_SCRIPT_RESOURCE_PATH)) {
+	    Files.copy(in, script.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	try (EsLintDaemon daemon = EsLintDaemon.start(Arrays.asList("node", script.getAbsolutePath(), "--eslint",
+		new File(eslintPackage, "bin/eslint.js").getAbsolutePath(), "--config", "unused.json"))) {
+	    assertEquals("[{\"filePath\":\"a.js\",\"messages\":[]}]", daemon.lint(Arrays.asList("a.js"), 10000));
+	    assertEquals("[{\"filePath\":\"b.js\",\"messages\":[]}]", daemon.lint(Arrays.asList("b.js"), 10000));
+	}
+    }
+
+    @Test
+    public void lint_sendsFilesAndReturnsReport() throws Exception {
+	final FakeProcess process = new FakeProcess("{\"id\":1,\"heapUsed\":42}\n[{\"filePath\":\"a.js\",\"messages\":[]}]\n");
+
+	try (EsLintDaemon daemon = new EsLintDaemon(process)) {
+	    final String report = daemon.lint(Arrays.asList("a.js", "b.js"), 1000);
+
+	    assertEquals("[{\"filePath\":\"a.js\",\"messages\":[]}]", report);
+	    assertEquals(42, daemon.getLastHeapUsed());
+	}
+	assertEquals("{\"id\":1,\"files\":[\"a.js\",\"b.js\"]}\n", process.requests());
+    }
+
+    @Test
+    public void lint_readsFileTimings() throws Exception {
+	final FakeProcess process = new FakeProcess("{\"id\":1,\"heapUsed\":42,\"timings\":{\"a.js\":12,\"b.js\":3}}\n[]\n");
+
+	try (EsLintDaemon daemon = new EsLintDaemon(process)) {
+	    daemon.lint(Arrays.asList("a.js", "b.js"), 1000);
+
+	    assertEquals(Long.valueOf(12), daemon.getLastTimings().get("a.js"));
+	    assertEquals(Long.valueOf(3), daemon.getLastTimings().get("b.js"));
+	}
+    }
+
+    @Test(expected = IOException.class)
+    public void lint_throws_ifDaemonReportsAnError() throws Exception {
+	try (EsLintDaemon daemon = new EsLintDaemon(new FakeProcess("{\"id\":1,\"error\":\"Cannot find module\"}\n"))) {
+	    daemon.lint(Arrays.asList("a.js"), 1000);
+	}
+    }
+
+    @Test(expected = IOException.class)
+    public void lint_throws_ifDaemonExited() throws Exception {
+	try (EsLintDaemon daemon = new EsLintDaemon(new FakeProcess(""))) {
+	    daemon.lint(Arrays.asList("a.js"), 1000);
+	}
+    }
+
+    @Test
+    public void close_destroysProcess() {
+	final FakeProcess process = new FakeProcess("");
+	new EsLintDaemon(process).close();
+
+	assertTrue(process.destroyed);
+    }
+
+    static class FakeProcess extends Process {
+	private final ByteArrayOutputStream stdin  = new ByteArrayOutputStream();
+	private final InputStream	    stdout;
+	boolean				    destroyed;
+
+	FakeProcess(String output) {
+	    this(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	FakeProcess(InputStream output) {
+	    stdout = output;
+	}
+
+	String requests() {
+	    return new String(stdin.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+	    return stdin;
+	}
+
+	@Override
+	public InputStream getInputStream() {
+	    return stdout;
+	}
+
+	@Override
+	public InputStream getErrorStream() {
+	    return new ByteArrayInputStream(new byte[0]);
+	}
+
+	@Override
+	public int waitFor() {
+	    return 0;
+	}
+
+	@Override
+	public boolean waitFor(long timeout, TimeUnit unit) {
+	    return true;
+	}
+
+	@Override
+	public int exitValue() {
+	    return 0;
+	}
+
+	@Override
+	public boolean isAlive() {
+	    return !destroyed;
+	}
+
+	@Override
+	public void destroy() {
+	    destroyed = true;
+	}
+    }
+}
@@ -13,6 +13,7 @@ package io.github.sleroy.sonar;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
@@ -22,6 +23,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Optional;
 
 import org.assertj.core.util.Files;
@@ -68,6 +70,16 @@ public class EsLintExecutorConfigTest {
 	assertEquals((Integer) 12, config.getTimeoutMs());
     }
 
+    @Test
+    public void canGetSetParallelism() {
+	final EsLintExecutorConfig config = getNewConfig();
+	assertEquals(1, config.getParallelism());
+
+	config.setParallelism(6);
+
+	assertEquals(6, config.getParallelism());
+    }
+
     @Test
     public <T> void fromSettings_checkConfigurationOrder() {
 	final GenericConfiguration settings = new GenericConfiguration();
@@ -138,6 +150,100 @@ public class EsLintExecutorConfigTest {
 	assertEquals((Integer) EsLintExecutorConfig.MAX_TIMEOUT, config.getTimeoutMs());
     }
 
+    @Test
+    public void fromSettings_setsParallelismToAvailableProcessors_ifNotSet() {
+	final PathResolver resolver = mock(PathResolver.class);
+
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, resolver);
+
+	assertEquals(Runtime.getRuntime().availableProcessors(), config.getParallelism());
+    }
+
+    @Test
+    public void fromSettings_setsParallelismFromSettings() {
+	final PathResolver resolver = mock(PathResolver.class);
+
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_PARALLELISM, 3);
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, resolver);
+
+	assertEquals(3, config.getParallelism());
+    }
+
+    @Test
+    public void fromSettings_disablesEsLintCache_ifNotSet() {
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, mock(PathResolver.class));
+
+	assertNull(config.getCacheLocation());
+    }
+
+    @Test
+    public void fromSettings_setsEsLintCacheLocation() {
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	create.fileSystem().setWorkDir(new File("work").getAbsoluteFile().toPath());
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_CACHE, true);
+	EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, mock(PathResolver.class));
+
+	assertEquals(new File(EsLintExecutorConfigFactory.persistentDirectory(create), EsLintExecutorConfig.CACHE_DIRECTORY)
+		.getAbsolutePath(), config.getCacheLocation());
+	assertEquals(EsLintExecutorConfig.CACHE_STRATEGY_CONTENT, config.getCacheStrategy());
+
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_CACHE_LOCATION, "cache");
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_CACHE_STRATEGY, EsLintExecutorConfig.CACHE_STRATEGY_METADATA);
+	config = EsLintExecutorConfigFactory.fromSettings(create, mock(PathResolver.class));
+
+	assertEquals(new File(Files.currentFolder(), "cache").getAbsolutePath(), config.getCacheLocation());
+	assertEquals(EsLintExecutorConfig.CACHE_STRATEGY_METADATA, config.getCacheStrategy());
+    }
+
+    @Test
+    public void fromSettings_setsNodePathAndOptions() {
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_NODE_PATH, "/opt/node/bin/node");
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_NODE_OPTIONS, " --stack-size=4000  --max-old-space-size=2048 ");
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_NODE_MAX_HEAP, 1024);
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, mock(PathResolver.class));
+
+	assertEquals("/opt/node/bin/node", config.getNodePath());
+	assertEquals(1024, config.getNodeMaxHeapMb());
+	// The heap size of the options wins
+	assertEquals(Arrays.asList("--stack-size=4000", "--max-old-space-size=2048"), config.getNodeArguments());
+    }
+
+    @Test
+    public void fromSettings_keepsNodeDefaultHeap_ifDisabled() {
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_NODE_MAX_HEAP, -1);
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, mock(PathResolver.class));
+
+	assertEquals(EsLintExecutorConfig.NODE_EXECUTABLE, config.getNodePath());
+	assertTrue(config.getNodeArguments().isEmpty());
+    }
+
+    @Test
+    public void fromSettings_keepsNodeDefaultHeap_byDefault() {
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, mock(PathResolver.class));
+
+	assertEquals(0, config.getNodeMaxHeapMb());
+	assertTrue(config.getNodeArguments().isEmpty());
+    }
+
+    @Test
+    public void automaticNodeMaxHeapMb_sharesMemoryLeftByScanner() {
+	assertEquals(6144, EsLintExecutorConfigFactory.automaticNodeMaxHeapMb(65536, 0, 8));
+	assertEquals(5760, EsLintExecutorConfigFactory.automaticNodeMaxHeapMb(65536, 4096, 8));
+	assertEquals(0, EsLintExecutorConfigFactory.automaticNodeMaxHeapMb(0, 1024, 4));
+    }
+
+    @Test
+    public void automaticNodeMaxHeapMb_neverLowersNodeDefault() {
+	assertEquals(0, EsLintExecutorConfigFactory.automaticNodeMaxHeapMb(16384, 0, 16));
+	assertEquals(0, EsLintExecutorConfigFactory.automaticNodeMaxHeapMb(4096, 1024, 32));
+    }
+
     @Test
     public <T> void fromSettings_testDefaultValues() {
 
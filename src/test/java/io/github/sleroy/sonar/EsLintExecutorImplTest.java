@@ -10,12 +10,19 @@
  */
 package io.github.sleroy.sonar;
 
+import com.google.gson.Gson;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -24,11 +31,16 @@ import org.mockito.stubbing.Answer;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
@@ -38,6 +50,7 @@ import org.sonar.api.internal.apachecommons.lang.SystemUtils;
 import org.sonar.api.utils.command.Command;
 import org.sonar.api.utils.command.CommandExecutor;
 import org.sonar.api.utils.command.StreamConsumer;
+import org.sonar.api.utils.command.TimeoutException;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.TempFolder;
 
@@ -46,6 +59,9 @@ import io.github.sleroy.sonar.api.EsLintParser;
 import io.github.sleroy.sonar.api.PathResolver;
 
 public class EsLintExecutorImplTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     EsLintExecutorImpl executorImpl;
     CommandExecutor    commandExecutor;
     TempFolder	       tempFolder;
@@ -95,9 +111,10 @@ public class EsLintExecutorImplTest {
             .setLastValidOffset(999)
             .setOriginalLineOffsets(new int[] { 5 }).build();
 
-        context = SensorContextTester.create(new File(""));
+        context = SensorContextTester.create(temp.newFolder("project"));
         context.fileSystem().add(file);
         context.fileSystem().add(typeDefFile);
+        context.fileSystem().setWorkDir(temp.newFolder("work").toPath());
     }
 
     @Test
@@ -108,7 +125,8 @@ public class EsLintExecutorImplTest {
 		.length();
 
 	final String firstBatch = "first batch";
-	while (currentLength + 12 < EsLintExecutorImpl.MAX_COMMAND_LENGTH - standardCmdLength) {
+	config.setMaxCommandLength(EsLintExecutorImpl.WINDOWS_MAX_COMMAND_LENGTH);
+	while (currentLength + 12 < EsLintExecutorImpl.WINDOWS_MAX_COMMAND_LENGTH - standardCmdLength) {
 	    filenames.add(firstBatch);
 	    currentLength += firstBatch.length() + 1; // 1 for the space
 	}
@@ -139,7 +157,8 @@ public class EsLintExecutorImplTest {
 		.length();
 
 	final String firstBatch = "first batch";
-	while (currentLength + 12 < EsLintExecutorImpl.MAX_COMMAND_LENGTH - standardCmdLength) {
+	config.setMaxCommandLength(EsLintExecutorImpl.WINDOWS_MAX_COMMAND_LENGTH);
+	while (currentLength + 12 < EsLintExecutorImpl.WINDOWS_MAX_COMMAND_LENGTH - standardCmdLength) {
 	    filenames.add(firstBatch);
 	    currentLength += firstBatch.length() + 1; // 1 for the space
 	}
@@ -204,6 +223,387 @@ public class EsLintExecutorImplTest {
 	assertFalse(theCommand.toCommandLine().contains("--rules-dir"));
     }
 
+    @Test
+    public void BatchesExecutions_UpToTheOperatingSystemLimit() throws Exception {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    capturedCommands.add(invocation.getArgument(0));
+		    return 0;
+		});
+
+	final List<String> filenames = new ArrayList<>();
+	for (int i = 0; i < 1000; i++) {
+	    filenames.add("path/to/a/rather/long/folder/name/file" + i + ".js");
+	}
+
+	when(system.isOsWindows()).thenReturn(false);
+	executorImpl = spy(new EsLintExecutorImpl(system, tempFolder));
+	doReturn(commandExecutor).when(executorImpl).createExecutor();
+	doReturn(mock(BufferedReader.class)).when(executorImpl).getBufferedReaderForFile(any(File.class));
+	executorImpl.execute(config, filenames, context);
+	assertEquals(1, capturedCommands.size());
+
+	capturedCommands.clear();
+	when(system.isOsWindows()).thenReturn(true);
+	executorImpl = spy(new EsLintExecutorImpl(system, tempFolder));
+	doReturn(commandExecutor).when(executorImpl).createExecutor();
+	doReturn(mock(BufferedReader.class)).when(executorImpl).getBufferedReaderForFile(any(File.class));
+	executorImpl.execute(config, filenames, context);
+	assertTrue(capturedCommands.size() > 1);
+    }
+
+    @Test
+    public void BatchesExecutions_SoThatEveryWorkerGetsSeveralBatches() {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    synchronized (capturedCommands) {
+			capturedCommands.add(invocation.getArgument(0));
+		    }
+		    return 0;
+		});
+
+	final List<String> filenames = new ArrayList<>();
+	for (int i = 0; i < 200; i++) {
+	    filenames.add("path/to/file" + i);
+	}
+
+	config.setParallelism(2);
+	executorImpl.execute(config, filenames, context);
+
+	assertEquals(2 * EsLintExecutorImpl.BATCHES_PER_WORKER, capturedCommands.size());
+    }
+
+    @Test
+    public void BatchesExecutions_WithFewerBatchesThanWorkers_ForSmallProjects() {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    synchronized (capturedCommands) {
+			capturedCommands.add(invocation.getArgument(0));
+		    }
+		    return 0;
+		});
+
+	final List<String> filenames = new ArrayList<>();
+	for (int i = 0; i < 3 * EsLintExecutorImpl.MIN_FILES_PER_BATCH - 1; i++) {
+	    filenames.add("path/to/file" + i);
+	}
+
+	config.setParallelism(8);
+	executorImpl.execute(config, filenames, context);
+
+	assertEquals(2, capturedCommands.size());
+    }
+
+    @Test
+    public void getMinimumBatches_keepsSeveralBatchesPerWorker_forLargeProjects() {
+	assertEquals(1, EsLintExecutorImpl.getMinimumBatches(1, 10000));
+	assertEquals(1, EsLintExecutorImpl.getMinimumBatches(8, 3));
+	assertEquals(8 * EsLintExecutorImpl.BATCHES_PER_WORKER, EsLintExecutorImpl.getMinimumBatches(8, 10000));
+    }
+
+    @Test
+    public void AddsCacheParameters_IfCacheLocationSet() {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    capturedCommands.add(invocation.getArgument(0));
+		    return 0;
+		});
+
+	config.setCacheLocation(temp.getRoot().getAbsolutePath());
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context);
+
+	final List<String> arguments = capturedCommands.get(0).getArguments();
+	assertTrue(arguments.contains("--cache"));
+	assertEquals(new File(temp.getRoot(),
+		"slot-" + EsLintExecutorImpl.getCacheSlot("path/to/file", context.fileSystem().baseDir(),
+			EsLintExecutorImpl.CACHE_SLOTS))
+		.getAbsolutePath(), arguments.get(arguments.indexOf("--cache-location") + 1));
+	assertEquals(EsLintExecutorConfig.CACHE_STRATEGY_CONTENT,
+		arguments.get(arguments.indexOf("--cache-strategy") + 1));
+    }
+
+    @Test
+    public void AddsCacheParameters_WithTheSameCacheFileForAFileWhateverTheOtherFiles() {
+	final List<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    synchronized (capturedCommands) {
+			capturedCommands.add(invocation.getArgument(0));
+		    }
+		    return 0;
+		});
+
+	config.setCacheLocation(temp.getRoot().getAbsolutePath());
+	config.setParallelism(4);
+	final List<String> filenames = new ArrayList<>();
+	for (int i = 0; i < 20; i++) {
+	    filenames.add("path/to/file" + i + ".js");
+	}
+	executorImpl.execute(config, filenames, context);
+	final String cacheFile = cacheFileOf("path/to/file7.js", capturedCommands);
+
+	capturedCommands.clear();
+	// Nor the cores of the machine
+	config.setParallelism(1);
+	executorImpl.execute(config, Arrays.asList("path/to/file7.js", "path/to/other.js"), context);
+	assertEquals(cacheFile, cacheFileOf("path/to/file7.js", capturedCommands));
+	assertEquals(new File(temp.getRoot(),
+		"slot-" + EsLintExecutorImpl.getCacheSlot("path/to/file7.js", context.fileSystem().baseDir(),
+			EsLintExecutorImpl.CACHE_SLOTS))
+		.getAbsolutePath(), cacheFile);
+    }
+
+    @Test
+    public void execute_bisectsWithoutCache() throws Exception {
+	final List<List<String>> runs = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    final List<String> arguments = invocation.<Command>getArgument(0).getArguments();
+		    runs.add(arguments);
+		    return arguments.contains("bad.js") ? 2 : 1;
+		});
+
+	// A file of the cache slot of bad.js, so that they are linted together
+	final File baseDir = context.fileSystem().baseDir();
+	final int slot = EsLintExecutorImpl.getCacheSlot("bad.js", baseDir, EsLintExecutorImpl.CACHE_SLOTS);
+	String other = "a.js";
+	for (int i = 0; EsLintExecutorImpl.getCacheSlot(other, baseDir, EsLintExecutorImpl.CACHE_SLOTS) != slot; i++) {
+	    other = "a" + i + ".js";
+	}
+
+	config.setCacheLocation(temp.getRoot().getAbsolutePath());
+	executorImpl.execute(config, Arrays.asList(other, "bad.js"), context);
+
+	assertEquals(3, runs.size());
+	assertTrue(runs.get(0).contains("--cache"));
+	assertFalse(runs.get(1).contains("--cache"));
+	assertFalse(runs.get(2).contains("--cache"));
+    }
+
+    private static String cacheFileOf(String file, List<Command> commands) {
+	for (final Command command : commands) {
+	    final List<String> arguments = command.getArguments();
+	    if (arguments.contains(file)) {
+		return arguments.get(arguments.indexOf("--cache-location") + 1);
+	    }
+	}
+	throw new AssertionError(file + " has not been linted");
+    }
+
+    @Test
+    public void RunsConfiguredNode_WithItsOptions() {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    capturedCommands.add(invocation.getArgument(0));
+		    return 0;
+		});
+
+	config.setNodePath("/opt/node/bin/node");
+	config.setNodeOptions(Arrays.asList("--stack-size=4000"));
+	config.setNodeMaxHeapMb(2048);
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context);
+
+	final Command command = capturedCommands.get(0);
+	assertEquals("/opt/node/bin/node", command.getExecutable());
+	assertEquals(Arrays.asList("--stack-size=4000", "--max-old-space-size=2048", "path/to/eslint"),
+		command.getArguments().subList(0, 3));
+    }
+
+    @Test
+    public void DoesNotAddCacheParameters_IfCacheLocationNotSet() {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    capturedCommands.add(invocation.getArgument(0));
+		    return 0;
+		});
+
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context);
+
+	assertFalse(capturedCommands.get(0).getArguments().contains("--cache"));
+    }
+
+    @Test
+    public void execute_skipsBatchesWithoutOutput() throws Exception {
+	doReturn(new BufferedReader(new StringReader(""))).when(executorImpl).getBufferedReaderForFile(any(File.class));
+
+	assertTrue(executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context).isEmpty());
+
+	doReturn(new BufferedReader(new StringReader(""))).when(executorImpl).getBufferedReaderForFile(any(File.class));
+	final List<Reader> reports = new ArrayList<>();
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context, reports::add);
+
+	assertTrue(reports.isEmpty());
+    }
+
+    @Test
+    public void execute_streamsStdoutToHandler_withoutOutputFile() throws Exception {
+	final List<Command> capturedCommands = new ArrayList<>();
+	doAnswer(invocation -> {
+	    capturedCommands.add(invocation.getArgument(0));
+	    return new EsLintDaemonTest.FakeProcess(stdout("[{\"filePath\":\"path/to/file\",\"messages\":[]}]"));
+	}).when(executorImpl).startProcess(any(Command.class));
+	config.setReadStdout(true);
+
+	final List<String> reports = new ArrayList<>();
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context,
+		report -> reports.add(new BufferedReader(report).readLine()));
+
+	assertEquals(Arrays.asList("[{\"filePath\":\"path/to/file\",\"messages\":[]}]"), reports);
+	assertFalse(capturedCommands.get(0).getArguments().contains("--output-file"));
+	assertTrue(capturedCommands.get(0).getArguments().contains("path/to/file"));
+    }
+
+    @Test
+    public void execute_handlesStdoutReportsOnTheCallingThread() throws Exception {
+	doAnswer(invocation -> new EsLintDaemonTest.FakeProcess(stdout("[]"))).when(executorImpl)
+		.startProcess(any(Command.class));
+	config.setReadStdout(true);
+	config.setParallelism(4);
+	final List<String> filenames = new ArrayList<>();
+	for (int i = 0; i < 4 * EsLintExecutorImpl.MIN_FILES_PER_BATCH; i++) {
+	    filenames.add("path/to/file" + i);
+	}
+
+	final List<Thread> handlerThreads = new ArrayList<>();
+	executorImpl.execute(config, filenames, context, report -> handlerThreads.add(Thread.currentThread()));
+
+	assertEquals(4, handlerThreads.size());
+	for (final Thread thread : handlerThreads) {
+	    assertEquals(Thread.currentThread(), thread);
+	}
+    }
+
+    @Test
+    public void execute_streamsStdoutReport_withoutWhatRulesPrint() throws Exception {
+	final List<Command> capturedCommands = new ArrayList<>();
+	doAnswer(invocation -> {
+	    capturedCommands.add(invocation.getArgument(0));
+	    return new EsLintDaemonTest.FakeProcess("rule loaded\n[not json\n" + stdout("[]") + "done\n");
+	}).when(executorImpl).startProcess(any(Command.class));
+	config.setReadStdout(true);
+
+	final List<String> reports = new ArrayList<>();
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context,
+		report -> reports.add(IOUtils.toString(report)));
+
+	assertEquals(Arrays.asList("[]"), reports);
+	final List<String> arguments = capturedCommands.get(0).getArguments();
+	assertNotEquals("json", arguments.get(arguments.indexOf("-f") + 1));
+    }
+
+    @Test
+    public void execute_failsOnlyTheBatchOfAMalformedStdoutReport() throws Exception {
+	doAnswer(invocation -> new EsLintDaemonTest.FakeProcess(
+		invocation.<Command>getArgument(0).getArguments().contains("path/to/file0") ? stdout("[{") : stdout("[]")))
+		.when(executorImpl).startProcess(any(Command.class));
+	config.setReadStdout(true);
+	config.setParallelism(2);
+	final List<String> filenames = new ArrayList<>();
+	for (int i = 0; i < 2 * EsLintExecutorImpl.MIN_FILES_PER_BATCH; i++) {
+	    filenames.add("path/to/file" + i);
+	}
+
+	final AtomicInteger handled = new AtomicInteger();
+	executorImpl.execute(config, filenames, context, report -> {
+	    new Gson().fromJson(report, List.class);
+	    handled.incrementAndGet();
+	});
+
+	assertEquals(1, handled.get());
+    }
+
+    /**
+     * Returns the standard output of EsLint run with the stdout formatter.
+     */
+    private static String stdout(final String report) {
+	return "\n" + EsLintExecutorImpl.STDOUT_REPORT_MARKER + "\n" + report + "\n";
+    }
+
+    @Test
+    public void execute_skipsEmptyStdout() throws Exception {
+	doReturn(new EsLintDaemonTest.FakeProcess("")).when(executorImpl).startProcess(any(Command.class));
+	config.setReadStdout(true);
+
+	final List<Reader> reports = new ArrayList<>();
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context, reports::add);
+
+	assertTrue(reports.isEmpty());
+    }
+
+    @Test
+    public void execute_bisectsFailingBatch_untilTheFailingFileIsIsolated() throws Exception {
+	final AtomicInteger fileCounter = new AtomicInteger();
+	when(tempFolder.newFile()).then(invocation -> {
+	    final File outputFile = mock(File.class);
+	    when(outputFile.getAbsolutePath()).thenReturn("path/to/temp" + fileCounter.getAndIncrement());
+	    return outputFile;
+	});
+	doAnswer(invocation -> new BufferedReader(new StringReader(invocation.<File>getArgument(0).getAbsolutePath())))
+		.when(executorImpl).getBufferedReaderForFile(any(File.class));
+
+	final List<List<String>> runs = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    final List<String> arguments = invocation.<Command>getArgument(0).getArguments();
+		    runs.add(arguments);
+		    return arguments.contains("bad.js") ? 2 : 1;
+		});
+
+	final List<String> outputs = executorImpl.execute(config, Arrays.asList("a.js", "bad.js", "c.js", "d.js"), context);
+
+	// [a, bad, c, d] fails, [a, bad] fails, [a] passes, [bad] fails, [c, d] passes
+	assertEquals(5, runs.size());
+	assertTrue(runs.get(3).contains("bad.js"));
+	assertFalse(runs.get(3).contains("a.js"));
+	assertEquals(Arrays.asList("path/to/temp2", "path/to/temp4"), outputs);
+    }
+
+    @Test
+    public void execute_deletesOutputFiles_onceRead() throws Exception {
+	final List<File> outputFiles = new ArrayList<>();
+	when(tempFolder.newFile()).then(invocation -> {
+	    final File outputFile = temp.newFile();
+	    outputFiles.add(outputFile);
+	    return outputFile;
+	});
+	doAnswer(invocation -> new BufferedReader(new StringReader("[]"))).when(executorImpl)
+		.getBufferedReaderForFile(any(File.class));
+
+	final List<String> filenames = new ArrayList<>();
+	for (int i = 0; i < 2 * EsLintExecutorImpl.MIN_FILES_PER_BATCH; i++) {
+	    filenames.add("file" + i + ".js");
+	}
+	config.setParallelism(2);
+	final List<String> outputs = executorImpl.execute(config, filenames, context);
+
+	assertEquals(2, outputs.size());
+	assertFalse(outputFiles.isEmpty());
+	for (final File outputFile : outputFiles) {
+	    assertFalse(outputFile.exists());
+	}
+    }
+
+    @Test
+    public void execute_skipsFileThatTimesOut() throws Exception {
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).thenThrow(new TimeoutException(null, "Timeout", null));
+
+	assertTrue(executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context).isEmpty());
+    }
+
+    @Test
+    public void execute_keepsEmptyReports_whenEveryFileWasCached() throws Exception {
+	doReturn(new BufferedReader(new StringReader("[]"))).when(executorImpl).getBufferedReaderForFile(any(File.class));
+
+	assertEquals(Arrays.asList("[]"), executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void execute_throws_ifNullConfigSupplied() {
         executorImpl.execute(null, new ArrayList<String>(), context);
@@ -242,6 +642,91 @@ public class EsLintExecutorImplTest {
         assertEquals(2 * 40000, theTimeout);
     }
 
+    @Test
+    public void executesBatchesConcurrently_andReturnsOutputInBatchOrder() throws Exception {
+	final List<String> filenames = new ArrayList<>();
+	for (int i = 0; i < 2000; i++) {
+	    filenames.add("path/to/file" + i);
+	}
+
+	final AtomicInteger fileCounter = new AtomicInteger();
+	when(tempFolder.newFile()).then(invocation -> {
+	    final File outputFile = mock(File.class);
+	    when(outputFile.getAbsolutePath()).thenReturn("path/to/temp" + fileCounter.getAndIncrement());
+	    return outputFile;
+	});
+	doAnswer(invocation -> new BufferedReader(new StringReader(invocation.<File>getArgument(0).getAbsolutePath())))
+		.when(executorImpl).getBufferedReaderForFile(any(File.class));
+
+	// Make the first batches the slowest ones so they complete last
+	final Answer<Integer> slowFirstBatches = invocation -> {
+	    final Command command = invocation.getArgument(0);
+	    final String outputPath = command.getArguments().get(command.getArguments().indexOf("--output-file") + 1);
+	    Thread.sleep(Math.max(0, 50 - 10 * Integer.parseInt(outputPath.substring("path/to/temp".length()))));
+	    return 0;
+	};
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(slowFirstBatches);
+
+	config.setParallelism(4);
+	final List<String> outputs = executorImpl.execute(config, filenames, context);
+
+	assertTrue(outputs.size() > 4);
+	for (int i = 0; i < outputs.size(); i++) {
+	    assertEquals("path/to/temp" + i, outputs.get(i));
+	}
+    }
+
+    @Test
+    public void executesBatchesConcurrently_andStreamsReportsInCompletionOrder() throws Exception {
+	final List<String> filenames = new ArrayList<>();
+	for (int i = 0; i < 2000; i++) {
+	    filenames.add("path/to/file" + i);
+	}
+
+	final AtomicInteger fileCounter = new AtomicInteger();
+	when(tempFolder.newFile()).then(invocation -> {
+	    final File outputFile = mock(File.class);
+	    when(outputFile.getAbsolutePath()).thenReturn("path/to/temp" + fileCounter.getAndIncrement());
+	    return outputFile;
+	});
+	doAnswer(invocation -> new BufferedReader(new StringReader(invocation.<File>getArgument(0).getAbsolutePath())))
+		.when(executorImpl).getBufferedReaderForFile(any(File.class));
+
+	// The first batch only completes once another batch has been handed over
+	final CountDownLatch otherBatchHandled = new CountDownLatch(1);
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    final Command command = invocation.getArgument(0);
+		    if (command.getArguments().contains("path/to/temp0")) {
+			assertTrue(otherBatchHandled.await(10, TimeUnit.SECONDS));
+		    }
+		    return 0;
+		});
+
+	config.setParallelism(4);
+	final List<String> reports = new ArrayList<>();
+	executorImpl.execute(config, filenames, context, report -> {
+	    reports.add(new BufferedReader(report).readLine());
+	    otherBatchHandled.countDown();
+	});
+
+	assertTrue(reports.size() > 4);
+	assertTrue(reports.contains("path/to/temp0"));
+	assertNotEquals("path/to/temp0", reports.get(0));
+    }
+
+    @Test
+    public void execute_streamsEachBatchReportToHandler() throws Exception {
+	doReturn(new BufferedReader(new StringReader("[]"))).when(executorImpl).getBufferedReaderForFile(any(File.class));
+
+	final List<String> reports = new ArrayList<>();
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }), context,
+		report -> reports.add(new BufferedReader(report).readLine()));
+
+	assertEquals(Arrays.asList("[]"), reports);
+    }
+
     @Before
     public void setUp() throws Exception {
 	system = mock(System2.class);
@@ -252,6 +737,7 @@ public class EsLintExecutorImplTest {
 	tempOutputFile = mock(File.class);
 	when(tempOutputFile.getAbsolutePath()).thenReturn("path/to/temp");
 	when(tempFolder.newFile()).thenReturn(tempOutputFile);
+	when(tempFolder.newFile(any(String.class), any(String.class))).then(invocation -> temp.newFile());
 
 	commandExecutor = mock(CommandExecutor.class);
 
@@ -0,0 +1,74 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import io.github.sleroy.sonar.api.EsLintExecutor;
+
+public class EsLintExecutorSelectorTest {
+    EsLintExecutor	   processExecutor;
+    EsLintExecutor	   daemonExecutor;
+    EsLintExecutorSelector selector;
+    EsLintExecutorConfig   config;
+    SensorContextTester	   context;
+    List<String>	   files;
+
+    @Before
+    public void setUp() {
+	processExecutor = mock(EsLintExecutor.class);
+	daemonExecutor = mock(EsLintExecutor.class);
+	selector = new EsLintExecutorSelector(processExecutor, daemonExecutor);
+	config = new EsLintExecutorConfig();
+	context = SensorContextTester.create(new File(""));
+	files = Arrays.asList("path/to/file");
+
+	when(processExecutor.execute(any(EsLintExecutorConfig.class), any(List.class), any(SensorContext.class)))
+		.thenReturn(Collections.singletonList("process"));
+	when(daemonExecutor.execute(any(EsLintExecutorConfig.class), any(List.class), any(SensorContext.class)))
+		.thenReturn(Collections.singletonList("daemon"));
+    }
+
+    @Test
+    public void execute_usesProcessExecutorByDefault() {
+	assertEquals(Collections.singletonList("process"), selector.execute(config, files, context));
+	verify(daemonExecutor, never()).execute(any(EsLintExecutorConfig.class), any(List.class), any(SensorContext.class));
+    }
+
+    @Test
+    public void execute_usesDaemonExecutor_inDaemonMode() {
+	config.setExecutionMode(EsLintExecutorConfig.EXECUTION_MODE_DAEMON);
+
+	assertEquals(Collections.singletonList("daemon"), selector.execute(config, files, context));
+    }
+
+    @Test
+    public void execute_usesDaemonExecutor_inPoolMode() {
+	config.setExecutionMode(EsLintExecutorConfig.EXECUTION_MODE_POOL);
+
+	assertEquals(Collections.singletonList("daemon"), selector.execute(config, files, context));
+    }
+
+    @Test
+    public void execute_fallsBackToProcessExecutor_ifDaemonUnavailable() {
+	config.setExecutionMode(EsLintExecutorConfig.EXECUTION_MODE_DAEMON);
+	when(daemonExecutor.execute(any(EsLintExecutorConfig.class), any(List.class), any(SensorContext.class)))
+		.thenThrow(new EsLintDaemonException("no node", new IOException()));
+
+	assertEquals(Collections.singletonList("process"), selector.execute(config, files, context));
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+public class EsLintFileFilterTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private SensorContextTester context;
+
+    @Before
+    public void setUp() throws IOException {
+	context = SensorContextTester.create(temp.newFolder("project"));
+    }
+
+    private InputFile inputFile(final String relativePath, final String contents) throws IOException {
+	final File file = new File(context.fileSystem().baseDir(), relativePath);
+	assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+	Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+	return TestInputFileBuilder.create("", context.fileSystem().baseDir(), file).setCharset(StandardCharsets.UTF_8)
+		.build();
+    }
+
+    private static String repeat(final String s, final int times) {
+	final StringBuilder builder = new StringBuilder();
+	for (int i = 0; i < times; i++) {
+	    builder.append(s);
+	}
+	return builder.toString();
+    }
+
+    private EsLintFileFilter filter() {
+	return EsLintFileFilter.fromSettings(context.config(), context.fileSystem());
+    }
+
+    @Test
+    public void accept_acceptsEverything_byDefault() throws IOException {
+	final EsLintFileFilter filter = filter();
+
+	assertTrue(filter.accept(inputFile("vendor/lib.min.js", repeat("var a=1;", 1000))));
+	assertTrue(filter.accept(inputFile("src/app.js", "var a = 1;\n")));
+    }
+
+    @Test
+    public void accept_skipsExcludedFiles() throws IOException {
+	context.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_EXCLUSIONS, "**/vendor/**, **/*.min.js");
+	final EsLintFileFilter filter = filter();
+
+	assertFalse(filter.accept(inputFile("vendor/lib.js", "var a = 1;\n")));
+	assertFalse(filter.accept(inputFile("src/app.min.js", "var a = 1;\n")));
+	assertTrue(filter.accept(inputFile("src/app.js", "var a = 1;\n")));
+    }
+
+    @Test
+    public void accept_skipsLargeFiles() throws IOException {
+	context.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_MAX_FILE_SIZE, "1");
+	final EsLintFileFilter filter = filter();
+
+	assertFalse(filter.accept(inputFile("src/big.js", repeat("var a = 1;\n", 100))));
+	assertTrue(filter.accept(inputFile("src/small.js", repeat("var a = 1;\n", 10))));
+    }
+
+    @Test
+    public void accept_skipsMinifiedAndGeneratedFiles() throws IOException {
+	context.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_SKIP_GENERATED, "true");
+	final EsLintFileFilter filter = filter();
+
+	assertFalse(filter.accept(inputFile("src/minified.js", repeat("var a=1;", 1000))));
+	assertFalse(filter.accept(inputFile("src/bundle.js",
+		repeat("var a = 1;\n", 2000) + "//# sourceMappingURL=bundle.js.map\n")));
+	assertTrue(filter.accept(inputFile("src/app.js", repeat("var a = 1;\n", 2000))));
+    }
+
+    @Test
+    public void looksGenerated_samplesTheContentOfTheInputFile() {
+	final String bundle = repeat("var a = 1;\n", 2000) + "//# sourceMappingURL=bundle.js.map\n";
+	final InputFile file = TestInputFileBuilder.create("", "dist/bundle.js").setCharset(StandardCharsets.UTF_8)
+		.setContents(bundle).build();
+
+	assertTrue(EsLintFileFilter.looksGenerated(file, 0));
+	assertTrue(EsLintFileFilter.looksGenerated(file, bundle.length()));
+	assertFalse(EsLintFileFilter.looksGenerated(TestInputFileBuilder.create("", "src/app.js")
+		.setCharset(StandardCharsets.UTF_8).setContents(repeat("var a = 1;\n", 2000)).build(), 0));
+    }
+
+    @Test
+    public void looksGenerated_skipsTheMiddleOfTheFile_withoutReadingIt() throws IOException {
+	final byte[] bundle = (repeat("var a = 1;\n", 100000) + "//# sourceMappingURL=bundle.js.map\n")
+		.getBytes(StandardCharsets.UTF_8);
+	final AtomicLong readBytes = new AtomicLong();
+	final InputFile file = mock(InputFile.class);
+	when(file.inputStream()).thenReturn(new ByteArrayInputStream(bundle) {
+	    @Override
+	    public synchronized int read(final byte[] b, final int off, final int len) {
+		final int read = super.read(b, off, len);
+		readBytes.addAndGet(Math.max(0, read));
+		return read;
+	    }
+	});
+
+	assertTrue(EsLintFileFilter.looksGenerated(file, bundle.length));
+	assertTrue(readBytes.get() <= EsLintFileFilter.HEAD_SAMPLE_BYTES + EsLintFileFilter.TAIL_SAMPLE_BYTES);
+    }
+
+    @Test
+    public void averageLineLength_ignoresTheTruncatedLastLine() {
+	assertEquals(4, EsLintFileFilter.averageLineLength("abc\nabc\nabcdefgh".getBytes(StandardCharsets.UTF_8)));
+	assertEquals(8, EsLintFileFilter.averageLineLength("abcdefgh".getBytes(StandardCharsets.UTF_8)));
+    }
+}
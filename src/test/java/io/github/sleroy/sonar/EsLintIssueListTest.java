@@ -0,0 +1,61 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.github.sleroy.sonar.model.EsLintIssue;
+
+public class EsLintIssueListTest {
+
+    private static EsLintIssue issue(final String ruleId, final int line) {
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setRuleId(ruleId);
+	issue.setMessage("message of " + ruleId);
+	issue.setLine(line);
+	issue.setColumn(line + 1);
+	issue.setEndLine(line + 2);
+	issue.setEndColumn(line + 3);
+	issue.setSeverity(2);
+	return issue;
+    }
+
+    @Test
+    public void get_returnsTheAddedIssues() {
+	final List<EsLintIssue> issues = new EsLintIssueList(new EsLintStringTable());
+	for (int line = 1; line <= 100; line++) {
+	    issues.add(issue(line % 2 == 0 ? "semi" : null, line));
+	}
+
+	assertEquals(100, issues.size());
+	int line = 1;
+	for (final EsLintIssue issue : issues) {
+	    assertEquals(issue(line % 2 == 0 ? "semi" : null, line).toString(), issue.toString());
+	    line++;
+	}
+	assertNull(issues.get(0).getRuleId());
+    }
+
+    @Test
+    public void trimToSize_keepsTheIssues() {
+	final EsLintIssueList issues = new EsLintIssueList(new EsLintStringTable());
+	issues.add(issue("semi", 3));
+
+	issues.trimToSize();
+	issues.add(issue("quotes", 4));
+
+	assertEquals("semi", issues.get(0).getRuleId());
+	assertEquals(4, issues.get(1).getLine());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void add_onlyAppends() {
+	final EsLintIssueList issues = new EsLintIssueList(new EsLintStringTable());
+	issues.add(issue("semi", 1));
+
+	issues.add(0, issue("quotes", 2));
+    }
+}
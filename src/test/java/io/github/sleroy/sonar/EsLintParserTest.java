@@ -10,11 +10,18 @@
 package io.github.sleroy.sonar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -84,4 +91,101 @@ public class EsLintParserTest {
 
 	assertEquals(0, issues.size());
     }
+
+    @Test
+    public void streaming_successWithResults() throws IOException {
+	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
+	try (Reader report = new FileReader("src/test/resources/results/ok.json")) {
+	    new EsLintParserImpl().parse(report, (filePath, issue) -> issues
+		    .computeIfAbsent(filePath, k -> new ArrayList<>()).add(issue));
+	}
+
+	assertEquals("Expected one file", 1, issues.size());
+
+	final List<EsLintIssue> fileIssues = issues.get("c:/workspace/SonarTsPlugin/src/test/resources/dashboard.js");
+	assertEquals("Expected fifty-eight violations", 58, fileIssues.size());
+	assertNotNull(fileIssues.get(0).getRuleId());
+	assertNotNull(fileIssues.get(0).getMessage());
+	assertNull("Unused members are not bound", fileIssues.get(0).getSource());
+    }
+
+    @Test
+    public void streaming_parsingFailure() throws IOException {
+	final List<EsLintIssue> issues = new ArrayList<>();
+	try (Reader report = new FileReader("src/test/resources/results/parsingFailure.json")) {
+	    new EsLintParserImpl().parse(report, (filePath, issue) -> issues.add(issue));
+	}
+
+	assertEquals("Expected one error, parsing error", 1, issues.size());
+	assertNull(issues.get(0).getRuleId());
+    }
+
+    @Test
+    public void streaming_emptyReports() throws IOException {
+	final List<EsLintIssue> issues = new ArrayList<>();
+	new EsLintParserImpl().parse(new StringReader(""), (filePath, issue) -> issues.add(issue));
+	new EsLintParserImpl().parse(new StringReader("[]"), (filePath, issue) -> issues.add(issue));
+
+	assertEquals(0, issues.size());
+    }
+
+    @Test
+    public void streaming_normalisesPathsAndReadsPathAfterMessages() throws IOException {
+	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
+	final String report = "[{\"messages\":[{\"ruleId\":\"semi\",\"message\":\"Missing semicolon.\",\"line\":3,\"column\":5,"
+		+ "\"severity\":2,\"fix\":{\"range\":[1,2],\"text\":\";\"}}],\"source\":\"var a\",\"filePath\":\"c:\\\\src\\\\a.js\"}]";
+	new EsLintParserImpl().parse(new StringReader(report), (filePath, issue) -> issues
+		.computeIfAbsent(filePath, k -> new ArrayList<>()).add(issue));
+
+	final EsLintIssue issue = issues.get("c:/src/a.js").get(0);
+	assertEquals("semi", issue.getRuleId());
+	assertEquals("Missing semicolon.", issue.getMessage());
+	assertEquals(3, issue.getLine());
+	assertEquals(5, issue.getColumn());
+	assertEquals(2, issue.getSeverity());
+    }
+
+    @Test
+    public void eslint_skipsUnusedMembers() {
+	final List<String> toParse = new ArrayList<>();
+	toParse.add("[{\"filePath\":\"a.js\",\"messages\":[{\"ruleId\":\"semi\",\"message\":\"Missing semicolon.\",\"line\":2,"
+		+ "\"source\":\"var a\",\"fix\":{\"range\":[1,2],\"text\":\";\"},\"suggestions\":[{\"desc\":\"x\"}]}],"
+		+ "\"errorCount\":1,\"fixableErrorCount\":1,\"source\":\"var a\\nvar b\",\"output\":\"var a;\"}]");
+
+	final Map<String, List<EsLintIssue>> issues = new EsLintParserImpl().parse(toParse);
+
+	final EsLintIssue issue = issues.get("a.js").get(0);
+	assertEquals("semi", issue.getRuleId());
+	assertEquals(2, issue.getLine());
+	assertNull(issue.getSource());
+    }
+
+    @Test
+    public void eslint_sharesRepeatedStrings() {
+	final String message = "{\"ruleId\":\"semi\",\"message\":\"Missing semicolon.\",\"line\":2}";
+	final List<String> toParse = new ArrayList<>();
+	toParse.add("[{\"filePath\":\"a.js\",\"messages\":[" + message + "," + message + "]}]");
+	toParse.add("[{\"filePath\":\"b.js\",\"messages\":[" + message + "]}]");
+
+	final Map<String, List<EsLintIssue>> issues = new EsLintParserImpl().parse(toParse);
+
+	final EsLintIssue first = issues.get("a.js").get(0);
+	for (final EsLintIssue issue : new EsLintIssue[] { issues.get("a.js").get(1), issues.get("b.js").get(0) }) {
+	    assertSame(first.getRuleId(), issue.getRuleId());
+	    assertSame(first.getMessage(), issue.getMessage());
+	}
+    }
+
+    @Test
+    public void eslint_readsArraysWrittenBackToBack() {
+	final List<String> toParse = new ArrayList<>();
+	toParse.add("[{\"filePath\":\"a.js\",\"messages\":[{\"ruleId\":\"semi\",\"message\":\"a][b\",\"line\":2}]}]"
+		+ "\n[{\"filePath\":\"b.js\",\"messages\":[{\"ruleId\":\"quotes\",\"message\":\"x\",\"line\":3}]}]");
+
+	final Map<String, List<EsLintIssue>> issues = new EsLintParserImpl().parse(toParse);
+
+	assertEquals(2, issues.size());
+	assertEquals("a][b", issues.get("a.js").get(0).getMessage());
+	assertEquals("quotes", issues.get("b.js").get(0).getRuleId());
+    }
 }
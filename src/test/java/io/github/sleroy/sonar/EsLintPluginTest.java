@@ -29,7 +29,7 @@ import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.utils.Version;
 
 public class EsLintPluginTest {
-    public static final int EXPECTED_PROPERTIES = 7;
+    public static final int EXPECTED_PROPERTIES = 29;
 
     private static Optional<Property> findPropertyByName(Property[] properties, String name) {
         return Stream.of(properties).filter(p -> p.key().equals(name)).findFirst();
@@ -49,6 +49,7 @@ public class EsLintPluginTest {
 	assertTrue(extensions.contains(EsLintLanguage.class));
 	assertTrue(extensions.contains(EsLintSensor.class));
 	assertTrue(extensions.contains(EsRulesDefinition.class));
+	assertTrue(extensions.contains(EsLintExecutorSelector.class));
     }
 
     @Test
@@ -75,6 +76,28 @@ public class EsLintPluginTest {
 	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_RULES_DIR));
 	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_RULE_CONFIGS));
 	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_ENABLE_NO_INLINE_CFG));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_PARALLELISM));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_EXECUTION_MODE));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_WORKER_MAX_FILES));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_WORKER_MAX_HEAP));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_STREAMING_PARSER));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_READ_STDOUT));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_NODE_PATH));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_NODE_OPTIONS));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_NODE_MAX_HEAP));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_ADAPTIVE_TIMEOUT));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_GLOBAL_TIMEOUT));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_EXCLUSIONS));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_MAX_FILE_SIZE));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_SKIP_GENERATED));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_MAX_COMMAND_LENGTH));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_CACHE));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_CACHE_LOCATION));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_CACHE_STRATEGY));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_ENABLED));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_PATH));
+	assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_MAX_SIZE));
     }
 
     @Test
@@ -0,0 +1,202 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import io.github.sleroy.sonar.model.EsLintIssue;
+
+public class EsLintResultCacheTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    SensorContextTester	 context;
+    EsLintExecutorConfig config;
+    File		 configFile;
+
+    @Before
+    public void setUp() throws IOException {
+	context = SensorContextTester.create(temp.newFolder("project"));
+	context.fileSystem().setWorkDir(temp.newFolder("work").toPath());
+
+	configFile = temp.newFile(".eslintrc.json");
+	Files.write(configFile.toPath(), "{\"rules\":{\"semi\":2}}".getBytes(StandardCharsets.UTF_8));
+
+	config = new EsLintExecutorConfig();
+	config.setPathToEsLint(new File(temp.getRoot(), "node_modules/eslint/bin/eslint.js").getAbsolutePath());
+	config.setConfigFile(configFile.getAbsolutePath());
+    }
+
+    private static InputFile inputFile(final String contents) {
+	return inputFile("a.js", contents);
+    }
+
+    private static InputFile inputFile(final String path, final String contents) {
+	return TestInputFileBuilder.create("", path).setCharset(StandardCharsets.UTF_8).setContents(contents).build();
+    }
+
+    private static EsLintIssue issue(final String ruleId, final int line) {
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setRuleId(ruleId);
+	issue.setMessage("message");
+	issue.setLine(line);
+	return issue;
+    }
+
+    @Test
+    public void fromSettings_returnsNull_whenDisabled() {
+	assertNull(EsLintResultCache.fromSettings(context, config));
+    }
+
+    @Test
+    public void fromSettings_defaultsToADirectoryOutsideTheWorkDirectory() {
+	context.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_ENABLED, "true");
+
+	assertTrue(EsLintResultCache.fromSettings(context, config) != null);
+	final File directory = new File(EsLintExecutorConfigFactory.persistentDirectory(context),
+		EsLintResultCache.DEFAULT_CACHE_DIRECTORY);
+	assertTrue(directory.isDirectory());
+	assertFalse(directory.toPath().startsWith(context.fileSystem().workDir().toPath()));
+    }
+
+    @Test
+    public void get_returnsStoredIssues() throws IOException {
+	final EsLintResultCache cache = new EsLintResultCache(temp.newFolder("cache").toPath(), 1024 * 1024, "fingerprint");
+	final String key = cache.key(inputFile("var a = 1"));
+
+	assertNull(cache.get(key));
+	cache.put(key, Collections.singletonList(issue("semi", 3)));
+
+	final List<EsLintIssue> issues = cache.get(key);
+	assertEquals(1, issues.size());
+	assertEquals("semi", issues.get(0).getRuleId());
+	assertEquals(3, issues.get(0).getLine());
+    }
+
+    @Test
+    public void key_dependsOnContentAndFingerprint() throws IOException {
+	final File directory = temp.newFolder("cache");
+	final EsLintResultCache cache = new EsLintResultCache(directory.toPath(), 1024 * 1024, "fingerprint");
+	final EsLintResultCache otherCache = new EsLintResultCache(directory.toPath(), 1024 * 1024, "other");
+
+	assertEquals(cache.key(inputFile("var a = 1")), cache.key(inputFile("var a = 1")));
+	assertNotEquals(cache.key(inputFile("var a = 1")), cache.key(inputFile("var a = 2")));
+	assertNotEquals(cache.key(inputFile("var a = 1")), otherCache.key(inputFile("var a = 1")));
+    }
+
+    @Test
+    public void key_dependsOnPath() throws IOException {
+	final EsLintResultCache cache = new EsLintResultCache(temp.newFolder("cache").toPath(), 1024 * 1024, "fingerprint");
+
+	assertNotEquals(cache.key(inputFile("src/a.js", "var a = 1")), cache.key(inputFile("test/a.js", "var a = 1")));
+    }
+
+    @Test
+    public void key_isRelativeToTheBaseDirectory() throws IOException {
+	final File directory = temp.newFolder("cache");
+	final File checkout = temp.newFolder("checkout");
+	final File otherCheckout = temp.newFolder("other-checkout");
+	final EsLintResultCache cache = new EsLintResultCache(directory.toPath(), checkout.toURI(), 1024 * 1024, "f");
+	final EsLintResultCache otherCache = new EsLintResultCache(directory.toPath(), otherCheckout.toURI(), 1024 * 1024, "f");
+
+	final InputFile file = TestInputFileBuilder.create("", checkout, new File(checkout, "src/a.js"))
+		.setCharset(StandardCharsets.UTF_8).setContents("var a = 1").build();
+	final InputFile otherFile = TestInputFileBuilder.create("", otherCheckout, new File(otherCheckout, "src/a.js"))
+		.setCharset(StandardCharsets.UTF_8).setContents("var a = 1").build();
+
+	assertEquals(cache.key(file), otherCache.key(otherFile));
+    }
+
+    @Test
+    public void computeFingerprint_changesWithThePluginVersions() throws IOException {
+	final File pluginPackage = new File(temp.getRoot(), "node_modules/@scope/eslint-plugin-foo/package.json");
+	assertTrue(pluginPackage.getParentFile().mkdirs());
+	Files.write(pluginPackage.toPath(), "{\"version\":\"1.0.0\"}".getBytes(StandardCharsets.UTF_8));
+	final String fingerprint = EsLintResultCache.computeFingerprint(context, config);
+
+	Files.write(pluginPackage.toPath(), "{\"version\":\"1.1.0\"}".getBytes(StandardCharsets.UTF_8));
+	final String upgraded = EsLintResultCache.computeFingerprint(context, config);
+	assertNotEquals(fingerprint, upgraded);
+
+	final File configPackage = new File(temp.getRoot(), "node_modules/eslint-config-bar/package.json");
+	assertTrue(configPackage.getParentFile().mkdirs());
+	Files.write(configPackage.toPath(), "{\"version\":\"2.0.0\"}".getBytes(StandardCharsets.UTF_8));
+	assertNotEquals(upgraded, EsLintResultCache.computeFingerprint(context, config));
+    }
+
+    @Test
+    public void computeFingerprint_fingerprintsTheExecutablePath_whenTheEsLintPathIsShallow() throws IOException {
+	config.setPathToEsLint(File.separator + "eslint");
+	final String root = EsLintResultCache.computeFingerprint(context, config);
+
+	config.setPathToEsLint("eslint");
+	assertNotEquals(root, EsLintResultCache.computeFingerprint(context, config));
+    }
+
+    @Test
+    public void computeFingerprint_changesWithTheConfiguration() throws IOException {
+	final String fingerprint = EsLintResultCache.computeFingerprint(context, config);
+	assertEquals(fingerprint, EsLintResultCache.computeFingerprint(context, config));
+
+	Files.write(configFile.toPath(), "{\"rules\":{\"semi\":1}}".getBytes(StandardCharsets.UTF_8));
+	final String changedConfig = EsLintResultCache.computeFingerprint(context, config);
+	assertNotEquals(fingerprint, changedConfig);
+
+	context.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_ENABLE_NO_INLINE_CFG, "true");
+	assertNotEquals(changedConfig, EsLintResultCache.computeFingerprint(context, config));
+    }
+
+    @Test
+    public void computeFingerprint_changesWithTheEsLintVersion() throws IOException {
+	final File packageJson = new File(temp.getRoot(), "node_modules/eslint/package.json");
+	assertTrue(packageJson.getParentFile().mkdirs());
+	Files.write(packageJson.toPath(), "{\"version\":\"4.19.1\"}".getBytes(StandardCharsets.UTF_8));
+	final String fingerprint = EsLintResultCache.computeFingerprint(context, config);
+
+	Files.write(packageJson.toPath(), "{\"version\":\"5.0.0\"}".getBytes(StandardCharsets.UTF_8));
+
+	assertNotEquals(fingerprint, EsLintResultCache.computeFingerprint(context, config));
+    }
+
+    @Test
+    public void evict_removesLeastRecentlyUsedEntries() throws IOException {
+	final File directory = temp.newFolder("cache");
+	final EsLintResultCache cache = new EsLintResultCache(directory.toPath(), 1, "fingerprint");
+	cache.put("old", Collections.singletonList(issue("semi", 1)));
+	cache.put("recent", Collections.emptyList());
+	assertTrue(new File(directory, "old.json").setLastModified(System.currentTimeMillis() - 60000));
+
+	// Each entry alone is already bigger than the cache
+	cache.evict();
+
+	assertFalse(new File(directory, "old.json").exists());
+	assertFalse(new File(directory, "recent.json").exists());
+
+	final EsLintResultCache biggerCache = new EsLintResultCache(directory.toPath(), 10, "fingerprint");
+	biggerCache.put("old", Collections.singletonList(issue("semi", 1)));
+	biggerCache.put("recent", Collections.emptyList());
+	assertTrue(new File(directory, "old.json").setLastModified(System.currentTimeMillis() - 60000));
+
+	biggerCache.evict();
+
+	assertFalse(new File(directory, "old.json").exists());
+	assertTrue(new File(directory, "recent.json").exists());
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.sonar.api.config.Configuration;
+
+import io.github.sleroy.sonar.model.EsLintRule;
+
+public class EsLintRuleCatalogueTest {
+
+    private static Configuration settings(final String... configs) {
+	final Configuration settings = mock(Configuration.class);
+	final String[] keys = new String[configs.length];
+	for (int i = 0; i < configs.length; i++) {
+	    keys[i] = EsLintPlugin.SETTING_ES_RULE_CONFIGS + ".cfg" + i + ".config";
+	    when(settings.get(keys[i])).thenReturn(Optional.of(configs[i]));
+	}
+	when(settings.getStringArray(EsLintPlugin.SETTING_ES_RULE_CONFIGS)).thenReturn(keys);
+	return settings;
+    }
+
+    @Test
+    public void coreRules_areParsedOnce() {
+	final List<EsLintRule> rules = EsLintRuleCatalogue.coreRules();
+
+	assertFalse(rules.isEmpty());
+	assertSame(rules, EsLintRuleCatalogue.coreRules());
+	assertSame(rules, new EsRulesDefinition().getCoreRules());
+    }
+
+    @Test
+    public void customRules_areSortedAcrossConfigurations() {
+	final List<EsLintRule> rules = EsLintRuleCatalogue
+		.customRules(settings("custom-b=true\n", "custom-c=true\ncustom-a=true\n"));
+
+	assertEquals(3, rules.size());
+	assertEquals("custom-a", rules.get(0).getKey());
+	assertEquals("custom-b", rules.get(1).getKey());
+	assertEquals("custom-c", rules.get(2).getKey());
+    }
+
+    @Test
+    public void customRules_areParsedOncePerConfiguration() {
+	final List<EsLintRule> first = EsLintRuleCatalogue.customRules(settings("cached-rule=true\n"));
+	final List<EsLintRule> second = EsLintRuleCatalogue.customRules(settings("cached-rule=true\n"));
+
+	assertSame(first.get(0), second.get(0));
+	assertTrue(EsLintRuleCatalogue.customRules(null).isEmpty());
+    }
+}
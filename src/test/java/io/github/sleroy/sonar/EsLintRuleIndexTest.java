@@ -0,0 +1,52 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.github.sleroy.sonar.model.EsLintRule;
+
+public class EsLintRuleIndexTest {
+
+    private static List<EsLintRule> parseProperties() throws IOException {
+	final List<EsLintRule> rules = new ArrayList<>();
+	try (InputStream in = EsLintRuleIndexTest.class.getResourceAsStream("/eslint/eslint-rules.properties")) {
+	    EsRulesDefinition.loadRules(in, rules);
+	}
+	return rules;
+    }
+
+    private static void assertSameRules(final List<EsLintRule> expected, final List<EsLintRule> actual) {
+	assertEquals(expected.size(), actual.size());
+	for (int i = 0; i < expected.size(); i++) {
+	    assertEquals(expected.get(i).toString(), actual.get(i).toString());
+	}
+    }
+
+    @Test
+    public void read_returnsTheWrittenRules() throws IOException {
+	final List<EsLintRule> rules = parseProperties();
+	final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	EsLintRuleIndex.write(rules, out);
+
+	assertSameRules(rules, EsLintRuleIndex.read(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherFiles() throws IOException {
+	EsLintRuleIndex.read(new ByteArrayInputStream("core-rule=true".getBytes("UTF-8")));
+    }
+
+    @Test
+    public void coreRules_matchTheProperties() throws IOException {
+	assertSameRules(parseProperties(), EsLintRuleCatalogue.coreRules());
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.rule.RuleKey;
+
+public class EsLintRuleKeyResolverTest {
+    private EsLintRuleKeyResolver resolver;
+
+    @Before
+    public void setUp() {
+	final ActiveRulesBuilder rulesBuilder = new ActiveRulesBuilder();
+	rulesBuilder.create(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "semi")).activate();
+	rulesBuilder.create(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "react-jsx-no-bind")).activate();
+	resolver = new EsLintRuleKeyResolver(
+		rulesBuilder.build().findByRepository(EsRulesDefinition.REPOSITORY_NAME));
+    }
+
+    @Test
+    public void resolve_returnsTheActiveRule() {
+	assertEquals(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "semi"), resolver.resolve("semi"));
+	assertEquals(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "react-jsx-no-bind"),
+		resolver.resolve("react/jsx-no-bind"));
+    }
+
+    @Test
+    public void resolve_reusesTheSameKey() {
+	assertSame(resolver.resolve("react/jsx-no-bind"), resolver.resolve("react/jsx-no-bind"));
+	assertSame(resolver.resolve("unknown"), resolver.resolve("other-unknown"));
+    }
+
+    @Test
+    public void resolve_fallsBackToTheUnknownRule() {
+	final RuleKey unknown = RuleKey.of(EsRulesDefinition.REPOSITORY_NAME,
+		EsRulesDefinition.ESLINT_UNKNOWN_RULE.getKey());
+
+	assertEquals(unknown, resolver.resolve("no-such-rule"));
+	assertEquals(unknown, resolver.resolve(null));
+	resolver.logUnknownRules();
+    }
+}
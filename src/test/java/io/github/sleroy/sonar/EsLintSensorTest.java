@@ -11,7 +11,9 @@
 package io.github.sleroy.sonar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -22,16 +24,22 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.stubbing.Answer;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
@@ -43,10 +51,14 @@ import org.sonar.api.rule.RuleKey;
 
 import io.github.sleroy.sonar.api.EsLintExecutor;
 import io.github.sleroy.sonar.api.EsLintParser;
+import io.github.sleroy.sonar.api.EsLintReportHandler;
 import io.github.sleroy.sonar.api.PathResolver;
 import io.github.sleroy.sonar.model.EsLintIssue;
 
 public class EsLintSensorTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     Configuration settings;
 
     DefaultInputFile file;
@@ -84,6 +96,7 @@ public class EsLintSensorTest {
 	settings = mock(Configuration.class);
 	when(settings.getInt(EsLintPlugin.SETTING_ES_LINT_TIMEOUT)).thenReturn(Optional.of(45000));
 	when(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_ENABLED)).thenReturn(Optional.of(true));
+	when(settings.getStringArray(EsLintPlugin.SETTING_ES_LINT_EXCLUSIONS)).thenReturn(new String[0]);
 	executor = mock(EsLintExecutor.class);
 	parser = mock(EsLintParser.class);
 
@@ -159,6 +172,141 @@ public class EsLintSensorTest {
 	assertEquals("rule name", context.allIssues().iterator().next().ruleKey().rule());
     }
 
+    @Test
+    public void execute_addsIssues_whenStreamingReports() {
+	when(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_STREAMING_PARSER)).thenReturn(Optional.of(true));
+	final String filePath = file.absolutePath().replace("\\", "/");
+	final String report = "[{\"filePath\":\"" + filePath + "\",\"messages\":[{\"ruleId\":\"rule name\",\"message\":\"failure\",\"line\":1}]},"
+		+ "{\"filePath\":\"" + filePath + "/nonexistent\",\"messages\":[{\"ruleId\":\"rule name\",\"message\":\"failure\",\"line\":1}]}]";
+	doAnswer(invocation -> {
+	    invocation.<EsLintReportHandler>getArgument(3).handle(new StringReader(report));
+	    return null;
+	}).when(executor).execute(any(EsLintExecutorConfig.class), any(List.class), any(SensorContext.class),
+		any(EsLintReportHandler.class));
+
+	sensor = new EsLintSensor(settings, resolver, executor, new EsLintParserImpl());
+	sensor.execute(context);
+
+	assertEquals(1, context.allIssues().size());
+	assertEquals("rule name", context.allIssues().iterator().next().ruleKey().rule());
+	verify(executor, times(0)).execute(any(EsLintExecutorConfig.class), any(List.class), any(SensorContext.class));
+    }
+
+    @Test
+    public void execute_onlyLintsChangedFiles_whenChangedFilesOnlyInAPullRequest() {
+	when(settings.get("sonar.pullrequest.key")).thenReturn(Optional.of("42"));
+	final List<String> paths = lintFilesWithStatuses();
+
+	assertEquals(3, paths.size());
+	assertFalse(paths.contains("same.js"));
+    }
+
+    @Test
+    public void execute_lintsUnchangedFiles_whenChangedFilesOnlyOutsideAPullRequest() {
+	final List<String> paths = lintFilesWithStatuses();
+
+	assertEquals(4, paths.size());
+	assertTrue(paths.contains("same.js"));
+    }
+
+    /**
+     * Lints an added, a changed, an unchanged file and a file without
+     * status with sonar.eslint.changedFilesOnly set.
+     *
+     * @return the names of the linted files
+     */
+    private List<String> lintFilesWithStatuses() {
+	when(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY)).thenReturn(Optional.of(true));
+	context = SensorContextTester.create(new File(""));
+	context.fileSystem().add(TestInputFileBuilder.create("", "added.js")
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).setStatus(InputFile.Status.ADDED).build());
+	context.fileSystem().add(TestInputFileBuilder.create("", "changed.js")
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).setStatus(InputFile.Status.CHANGED).build());
+	context.fileSystem().add(TestInputFileBuilder.create("", "same.js")
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).setStatus(InputFile.Status.SAME).build());
+	context.fileSystem().add(TestInputFileBuilder.create("", "unknown.js")
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).build());
+
+	final ArgumentCaptor<List> paths = ArgumentCaptor.forClass(List.class);
+	when(executor.execute(any(EsLintExecutorConfig.class), paths.capture(), any(SensorContext.class)))
+		.thenReturn(new ArrayList<>());
+	when(parser.parse(any(List.class))).thenReturn(new HashMap<>());
+
+	sensor.execute(context);
+
+	final List<String> names = new ArrayList<>();
+	for (final Object path : paths.getValue()) {
+	    names.add(new File((String) path).getName());
+	}
+	return names;
+    }
+
+    @Test
+    public void execute_skipsExcludedFiles() {
+	when(settings.getStringArray(EsLintPlugin.SETTING_ES_LINT_EXCLUSIONS))
+		.thenReturn(new String[] { "**/*.d.ts" });
+
+	final ArgumentCaptor<List> paths = ArgumentCaptor.forClass(List.class);
+	when(executor.execute(any(EsLintExecutorConfig.class), paths.capture(), any(SensorContext.class)))
+		.thenReturn(new ArrayList<>());
+	when(parser.parse(any(List.class))).thenReturn(new HashMap<>());
+
+	sensor.execute(context);
+
+	assertEquals(1, paths.getValue().size());
+	assertEquals(file.absolutePath(), paths.getValue().get(0));
+    }
+
+    @Test
+    public void execute_replaysCachedIssues_forUnchangedFiles() throws IOException {
+	fakePathResolutions.put(EsLintPlugin.SETTING_ES_LINT_CONFIG_PATH, "src/test/resources/.eslintrc.json");
+	final File baseDir = temp.newFolder();
+	context = SensorContextTester.create(baseDir);
+	context.fileSystem().setWorkDir(new File(baseDir, "work").toPath());
+	context.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_ENABLED, "true");
+	context.setActiveRules(new ActiveRulesBuilder()
+		.create(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "rule name")).activate().build());
+	final DefaultInputFile changed = TestInputFileBuilder.create("", "changed.js")
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).setCharset(StandardCharsets.UTF_8).setContents("var a = 1\n").build();
+	final DefaultInputFile unchanged = TestInputFileBuilder.create("", "unchanged.js")
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).setCharset(StandardCharsets.UTF_8).setContents("var b = 1\n").build();
+	context.fileSystem().add(changed);
+	context.fileSystem().add(unchanged);
+
+	final List<List<String>> lintedPaths = new ArrayList<>();
+	when(executor.execute(any(EsLintExecutorConfig.class), any(List.class), any(SensorContext.class)))
+		.then(invocation -> {
+		    final List<String> paths = invocation.getArgument(1);
+		    lintedPaths.add(new ArrayList<>(paths));
+		    final StringBuilder report = new StringBuilder("[");
+		    for (final String path : paths) {
+			report.append(report.length() > 1 ? "," : "").append("{\"filePath\":\"").append(path)
+				.append("\",\"messages\":[{\"ruleId\":\"rule name\",\"message\":\"failure\",\"line\":1}]}");
+		    }
+		    return Collections.singletonList(report.append(']').toString());
+		});
+	sensor = new EsLintSensor(settings, resolver, executor, new EsLintParserImpl());
+
+	sensor.execute(context);
+	assertEquals(2, lintedPaths.get(0).size());
+	assertEquals(2, context.allIssues().size());
+
+	// Second analysis of the same project, one file changed, the scanner
+	// having cleaned its working directory
+	context = SensorContextTester.create(baseDir);
+	context.fileSystem().setWorkDir(new File(baseDir, "work2").toPath());
+	context.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_RESULT_CACHE_ENABLED, "true");
+	context.setActiveRules(new ActiveRulesBuilder()
+		.create(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "rule name")).activate().build());
+	context.fileSystem().add(TestInputFileBuilder.create("", "changed.js")
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).setCharset(StandardCharsets.UTF_8).setContents("var a = 2\n").build());
+	context.fileSystem().add(unchanged);
+
+	sensor.execute(context);
+	assertEquals(Collections.singletonList(changed.absolutePath()), lintedPaths.get(1));
+	assertEquals(2, context.allIssues().size());
+    }
+
     @Test
     public void execute_addsToUnknownRuleBucket_whenRuleNameNotRecognised() {
 	final EsLintIssue issue = new EsLintIssue();
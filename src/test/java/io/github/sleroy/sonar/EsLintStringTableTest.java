@@ -0,0 +1,45 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class EsLintStringTableTest {
+
+    @Test
+    public void ruleIndex_numbersRuleIdsInOrder() {
+	final EsLintStringTable table = new EsLintStringTable();
+
+	assertEquals(0, table.ruleIndex("semi"));
+	assertEquals(1, table.ruleIndex("react/jsx-no-bind"));
+	assertEquals(0, table.ruleIndex(new String("semi")));
+	assertEquals("react/jsx-no-bind", table.ruleId(1));
+    }
+
+    @Test
+    public void internRuleId_returnsTheFirstInstance() {
+	final EsLintStringTable table = new EsLintStringTable();
+	final String semi = new String("semi");
+
+	assertSame(semi, table.internRuleId(semi));
+	assertSame(semi, table.internRuleId(new String("semi")));
+	assertNull(table.internRuleId(null));
+    }
+
+    @Test
+    public void internMessage_keepsABoundedNumberOfMessages() {
+	final EsLintStringTable table = new EsLintStringTable(1);
+	final String first = new String("Missing semicolon.");
+
+	assertSame(first, table.internMessage(first));
+	assertSame(first, table.internMessage(new String("Missing semicolon.")));
+
+	// A single slot, the second message evicts the first one
+	table.internMessage("Unexpected var.");
+	assertNotSame(first, table.internMessage(new String("Missing semicolon.")));
+	assertNull(table.internMessage(null));
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class EsLintTimeoutPolicyTest {
+
+    @Test
+    public void timeoutMs_scalesConfiguredTimeoutWithCost() {
+	final EsLintTimeoutPolicy policy = new EsLintTimeoutPolicy(60000, false, 0, 100);
+	policy.record(10, 1000);
+
+	assertEquals(60000, policy.timeoutMs(0.5));
+	assertEquals(180000, policy.timeoutMs(2.5));
+    }
+
+    @Test
+    public void timeoutMs_followsObservedThroughput_inAdaptiveMode() {
+	final EsLintTimeoutPolicy policy = new EsLintTimeoutPolicy(60000, true, 0, 0);
+	// Nothing observed yet
+	assertEquals(6000000, policy.timeoutMs(100));
+
+	policy.record(100, 100000);
+	// 1 s per unit, five times as much allowed
+	assertEquals(500000, policy.timeoutMs(100));
+	// Never below the minimum
+	assertEquals(EsLintTimeoutPolicy.MIN_ADAPTIVE_TIMEOUT_MS, policy.timeoutMs(1));
+    }
+
+    @Test
+    public void timeoutMs_usesPreviousAnalysis_untilABatchCompletes() {
+	final EsLintTimeoutPolicy policy = new EsLintTimeoutPolicy(60000, true, 0, 1000);
+
+	assertEquals(500000, policy.timeoutMs(100));
+    }
+
+    @Test
+    public void timeoutMs_isBoundedByGlobalDeadline() {
+	final EsLintTimeoutPolicy policy = new EsLintTimeoutPolicy(60000, false, 5000, 0);
+
+	assertTrue(policy.timeoutMs(100) <= 5000);
+	assertFalse(policy.isExpired());
+    }
+
+    @Test
+    public void isExpired_onceGlobalDeadlinePassed() throws Exception {
+	final EsLintTimeoutPolicy policy = new EsLintTimeoutPolicy(60000, false, 1, 0);
+	Thread.sleep(5);
+
+	assertTrue(policy.isExpired());
+	assertEquals(1, policy.timeoutMs(100));
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+public class EsLintTimingStoreTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void weigh_fallsBackToSize_ifFileNeverLinted() throws Exception {
+	final File file = temp.newFile("a.js");
+	final EsLintTimingStore store = new EsLintTimingStore(null);
+
+	assertEquals(EsLintBatchPlanner.bySize().weigh(file.getPath()), store.weigh(file.getPath()), 0.001);
+    }
+
+    @Test
+    public void weigh_usesPreviousTimes_calibratedOnSize() throws Exception {
+	final File slow = temp.newFile("slow.js");
+	final File fast = temp.newFile("fast.js");
+	final File timings = new File(temp.getRoot(), EsLintTimingStore.FILE_NAME);
+
+	final EsLintTimingStore first = EsLintTimingStore.load(timings);
+	first.recordFile(slow.getPath(), 300);
+	first.recordFile(fast.getPath(), 100);
+	first.save();
+
+	// Both files weigh a unit by size, so a unit takes 200 ms on average
+	final EsLintTimingStore second = EsLintTimingStore.load(timings);
+	assertEquals(1.5, second.weigh(slow.getPath()), 0.001);
+	assertEquals(0.5, second.weigh(fast.getPath()), 0.001);
+    }
+
+    @Test
+    public void load_readsTheTimingsOfThePreviousAnalysis_whateverTheWorkDirectory() throws Exception {
+	final File slow = temp.newFile("slow.js");
+	final File fast = temp.newFile("fast.js");
+	final SensorContextTester first = SensorContextTester.create(temp.newFolder("project"));
+	first.fileSystem().setWorkDir(temp.newFolder("work").toPath());
+
+	final EsLintTimingStore store = EsLintTimingStore.load(first);
+	store.recordFile(slow.getPath(), 300);
+	store.recordFile(fast.getPath(), 100);
+	store.save();
+
+	// The scanner cleaned its working directory in between
+	final SensorContextTester second = SensorContextTester.create(first.fileSystem().baseDir());
+	second.fileSystem().setWorkDir(temp.newFolder("work2").toPath());
+	assertEquals(1.5, EsLintTimingStore.load(second).weigh(slow.getPath()), 0.001);
+    }
+
+    @Test
+    public void recordBatch_sharesTimeBySize() throws Exception {
+	final File small = temp.newFile("small.js");
+	final File big = temp.newFile("big.js");
+	Files.write(big.toPath(), new byte[(int) EsLintBatchPlanner.REFERENCE_FILE_SIZE]);
+	final File timings = new File(temp.getRoot(), EsLintTimingStore.FILE_NAME);
+
+	final EsLintTimingStore first = EsLintTimingStore.load(timings);
+	first.recordBatch(Arrays.asList(small.getPath(), big.getPath()), 300);
+	first.save();
+
+	final EsLintTimingStore second = EsLintTimingStore.load(timings);
+	assertEquals(1, second.weigh(small.getPath()), 0.001);
+	assertEquals(2, second.weigh(big.getPath()), 0.001);
+    }
+
+    @Test
+    public void save_forgetsDeletedFiles() throws Exception {
+	final File kept = temp.newFile("kept.js");
+	final File deleted = temp.newFile("deleted.js");
+	final File timings = new File(temp.getRoot(), EsLintTimingStore.FILE_NAME);
+
+	final EsLintTimingStore store = EsLintTimingStore.load(timings);
+	store.recordFile(kept.getPath(), 10);
+	store.recordFile(deleted.getPath(), 10);
+	assertTrue(deleted.delete());
+	store.save();
+
+	final String saved = new String(Files.readAllBytes(timings.toPath()), StandardCharsets.UTF_8);
+	assertTrue(saved.contains("kept.js"));
+	assertTrue(!saved.contains("deleted.js"));
+    }
+
+    @Test
+    public void load_ignoresUnreadableFile() throws Exception {
+	final File file = temp.newFile("a.js");
+	final File timings = temp.newFile(EsLintTimingStore.FILE_NAME);
+	Files.write(timings.toPath(), "not json".getBytes(StandardCharsets.UTF_8));
+
+	final EsLintTimingStore store = EsLintTimingStore.load(timings);
+
+	assertEquals(EsLintBatchPlanner.bySize().weigh(file.getPath()), store.weigh(file.getPath()), 0.001);
+    }
+}
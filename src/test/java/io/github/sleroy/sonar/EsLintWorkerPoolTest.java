@@ -0,0 +1,175 @@
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.github.sleroy.sonar.EsLintDaemonTest.FakeProcess;
+
+public class EsLintWorkerPoolTest {
+    private static final String REPORT = "{\"id\":1,\"heapUsed\":42}\n[]\n";
+
+    private static EsLintWorkerPool.DaemonFactory daemons(AtomicInteger started, String... outputs) {
+	final Iterator<String> output = Arrays.asList(outputs).iterator();
+	return () -> {
+	    started.incrementAndGet();
+	    if (!output.hasNext()) {
+		throw new IOException("No more daemons");
+	    }
+	    return new EsLintDaemon(new FakeProcess(output.next()));
+	};
+    }
+
+    private static EsLintTimeoutPolicy fixed(final long timeoutMs) {
+	return new EsLintTimeoutPolicy(timeoutMs, false, 0, 0);
+    }
+
+    /**
+     * Answers requests 1 to n once the gate opens.
+     */
+    private static FakeProcess gatedProcess(final CountDownLatch gate, final int requests) {
+	final StringBuilder output = new StringBuilder();
+	for (int id = 1; id <= requests; id++) {
+	    output.append("{\"id\":").append(id).append(",\"heapUsed\":42}\n[]\n");
+	}
+	final InputStream answers = new ByteArrayInputStream(output.toString().getBytes(StandardCharsets.UTF_8));
+	return new FakeProcess(new InputStream() {
+	    @Override
+	    public int read() throws IOException {
+		try {
+		    gate.await();
+		} catch (final InterruptedException e) {
+		    throw new IOException(e);
+		}
+		return answers.read();
+	    }
+	});
+    }
+
+    @Test
+    public void submit_idleWorkersTakeQueuedRequests() throws Exception {
+	final CountDownLatch slowGate = new CountDownLatch(1);
+	final CountDownLatch open = new CountDownLatch(0);
+	final Iterator<EsLintDaemon> daemons = Arrays
+		.asList(new EsLintDaemon(gatedProcess(slowGate, 4)), new EsLintDaemon(gatedProcess(open, 4))).iterator();
+	try (EsLintWorkerPool pool = new EsLintWorkerPool(daemons::next, 2, 0, 0)) {
+	    final List<Future<String>> reports = new ArrayList<>();
+	    for (int i = 0; i < 4; i++) {
+		reports.add(pool.submit(Arrays.asList(i + ".js"), 1, fixed(10000)));
+	    }
+
+	    // One request is stuck on the slow worker, the other worker lints all the others
+	    final long deadline = System.currentTimeMillis() + 10000;
+	    while (reports.stream().filter(Future::isDone).count() < 3 && System.currentTimeMillis() < deadline) {
+		Thread.sleep(10);
+	    }
+	    assertEquals(3, reports.stream().filter(Future::isDone).count());
+
+	    slowGate.countDown();
+	    for (final Future<String> report : reports) {
+		assertEquals("[]", report.get());
+	    }
+	}
+    }
+
+    @Test
+    public void submit_takesMostExpensiveRequestFirst() throws Exception {
+	final CountDownLatch gate = new CountDownLatch(1);
+	final FakeProcess process = gatedProcess(gate, 3);
+	final EsLintDaemon daemon = new EsLintDaemon(process);
+	try (EsLintWorkerPool pool = new EsLintWorkerPool(() -> daemon, 1, 0, 0)) {
+	    final Future<String> first = pool.submit(Arrays.asList("first.js"), 1, fixed(10000));
+	    // Wait until the worker is busy on the first request
+	    final long deadline = System.currentTimeMillis() + 10000;
+	    while (!process.requests().contains("first.js") && System.currentTimeMillis() < deadline) {
+		Thread.sleep(10);
+	    }
+	    final Future<String> cheap = pool.submit(Arrays.asList("cheap.js"), 1, fixed(10000));
+	    final Future<String> expensive = pool.submit(Arrays.asList("expensive.js"), 5, fixed(10000));
+
+	    gate.countDown();
+	    first.get();
+	    cheap.get();
+	    expensive.get();
+	    final String requests = process.requests();
+	    assertTrue(requests.indexOf("expensive.js") < requests.indexOf("cheap.js"));
+	}
+    }
+
+    @Test
+    public void submit_restartsCrashedWorkerAndRetries() throws Exception {
+	final AtomicInteger started = new AtomicInteger();
+	try (EsLintWorkerPool pool = new EsLintWorkerPool(daemons(started, "", REPORT), 1, 0, 0)) {
+	    assertEquals("[]", pool.submit(Arrays.asList("a.js"), 1, fixed(1000)).get());
+	}
+	assertEquals(2, started.get());
+    }
+
+    @Test
+    public void submit_givesUpOnBatchFailingTwice() throws Exception {
+	final AtomicInteger started = new AtomicInteger();
+	try (EsLintWorkerPool pool = new EsLintWorkerPool(daemons(started, "", "", REPORT), 1, 0, 0)) {
+	    assertNull(pool.submit(Arrays.asList("a.js"), 1, fixed(1000)).get());
+	    // The worker has been restarted and is usable again
+	    assertEquals("[]", pool.submit(Arrays.asList("a.js"), 1, fixed(1000)).get());
+	}
+    }
+
+    @Test
+    public void submit_skipsRequests_onceTheGlobalTimeoutIsReached() throws Exception {
+	final AtomicInteger started = new AtomicInteger();
+	final EsLintTimeoutPolicy timeouts = new EsLintTimeoutPolicy(1000, false, 1, 0);
+	Thread.sleep(10);
+	try (EsLintWorkerPool pool = new EsLintWorkerPool(daemons(started, REPORT), 1, 0, 0)) {
+	    assertNull(pool.submit(Arrays.asList("a.js"), 1, timeouts).get());
+	}
+	assertEquals(1, started.get());
+    }
+
+    @Test
+    public void submit_timesOutAfterTheTimeoutOfThePolicy() throws Exception {
+	final Iterator<EsLintDaemon> daemons = Arrays.asList(new EsLintDaemon(gatedProcess(new CountDownLatch(1), 1)),
+		new EsLintDaemon(new FakeProcess(REPORT))).iterator();
+	final EsLintTimeoutPolicy timeouts = new EsLintTimeoutPolicy(50, false, 0, 0);
+	try (EsLintWorkerPool pool = new EsLintWorkerPool(daemons::next, 1, 0, 0)) {
+	    assertNull(pool.submit(Arrays.asList("a.js"), 1, timeouts).get(10, TimeUnit.SECONDS));
+	}
+    }
+
+    @Test
+    public void submit_recyclesWorkerAfterMaxFiles() throws Exception {
+	final AtomicInteger started = new AtomicInteger();
+	try (EsLintWorkerPool pool = new EsLintWorkerPool(daemons(started, REPORT, REPORT), 1, 2, 0)) {
+	    assertEquals("[]", pool.submit(Arrays.asList("a.js", "b.js"), 1, fixed(1000)).get());
+	    // Served by the recycled daemon, the first one can only answer once
+	    assertEquals("[]", pool.submit(Arrays.asList("a.js"), 1, fixed(1000)).get());
+	}
+	assertEquals(2, started.get());
+    }
+
+    @Test
+    public void submit_recyclesWorkerAboveMaxHeap() throws Exception {
+	final AtomicInteger started = new AtomicInteger();
+	final String bigHeap = "{\"id\":1,\"heapUsed\":2097152}\n[]\n";
+	try (EsLintWorkerPool pool = new EsLintWorkerPool(daemons(started, bigHeap, REPORT), 1, 0, 1)) {
+	    assertEquals("[]", pool.submit(Arrays.asList("a.js"), 1, fixed(1000)).get());
+	    assertEquals("[]", pool.submit(Arrays.asList("a.js"), 1, fixed(1000)).get());
+	}
+	assertEquals(2, started.get());
+    }
+}